@@ -1,7 +1,10 @@
 import java.util.ArrayList;
+import javafoundations.StringDictionary;
 
 /**
  * Creates an Actor, which will be represented as a vertex in the HollywoodGraph.
+ * The actor's name is kept as an id in a dictionary of names shared by all the actors
+ * of a graph, and its gender as a Gender code.
  *
  * @author Beatrix Kim
  * @author Jessica Dai
@@ -10,19 +13,34 @@ import java.util.ArrayList;
  */
 public class Actor
 {
-    private String gender; // gender of actor
-    private String name; // name of actor
+    private StringDictionary names; // names of the actors, shared with the other actors
+    private int id; // id of the actor's name in names
+    private byte gender; // Gender code of the actor
     private ArrayList<Movie> movies; // list of movies that actor is in
     private int graphIndex; // the actor's index in a HollywoodGraph
 
     /**
-     * Constructor for objects of class Actor
+     * Constructor for objects of class Actor whose name is already in a dictionary
+     * @param names the dictionary of actor names
+     * @param id the id of the actor's name in the dictionary
+     * @param gender the Gender code of the actor
+     */
+    public Actor(StringDictionary names, int id, byte gender){
+        this.names = names;
+        this.id = id;
+        this.gender = gender;
+        movies = new ArrayList<Movie>();
+    }
+
+    /**
+     * Constructor for objects of class Actor, with a dictionary of its own
      * @param n the actor name
      * @param g the actor gender
      */
     public Actor(String n, String g){
-        name = n;
-        gender = g;
+        names = new StringDictionary();
+        id = names.add(n);
+        gender = Gender.of(g);
         movies = new ArrayList<Movie>();
     }
     
@@ -42,12 +60,21 @@ public class Actor
         graphIndex = ind;
     }
     
+    /**
+     * Getter for the id of the actor's name in its dictionary. Actors of the same graph
+     * have the same id only if they are the same actor.
+     * @return id
+     */
+    public int getId(){
+        return id;
+    }
+
     /**
      * Getter for the name of the actor
      * @return name
      */
     public String getName(){
-        return name;
+        return names.get(id);
     }
     
     /**
@@ -55,6 +82,14 @@ public class Actor
      * @return gender
      */
     public String getGender(){
+        return Gender.name(gender);
+    }
+
+    /**
+     * Getter for the Gender code of actor
+     * @return gender code, such as Gender.FEMALE
+     */
+    public byte getGenderCode(){
         return gender;
     }
     
@@ -73,6 +108,15 @@ public class Actor
     public void addMovie(Movie m){
         movies.add(m);
     }
+
+    /**
+     * Given a movie, removes it once from the actor's list of movies
+     * @param m the movie to be removed from the movie list
+     * @return true if the movie was in the list
+     */
+    public boolean removeMovie(Movie m){
+        return movies.remove(m);
+    }
     
     /**
      * Creates string representation of Actor including the name, gender, and 
@@ -80,7 +124,7 @@ public class Actor
      * @return String representation of Actor
      */
     public String toString() {
-        String s = name + " (" + gender + ") has played in: ";
+        String s = getName() + " (" + getGender() + ") has played in: ";
         for (int i = 0; i < movies.size(); i++) {
             if (i != movies.size() - 1) 
                 s += movies.get(i).getTitle() + ", "; // add commas between movies
@@ -100,8 +144,13 @@ public class Actor
         a.addMovie(new Movie("The Hunger Games: Mockingjay Pt.1"));
         a.addMovie(new Movie("The Hunger Games: Mockingjay Pt.2"));
         System.out.println("Created new actor: " + a.getName() + ", " + a.getGender());
+        System.out.println("getGenderCode Expected: " + Gender.MALE + ", actual: " + a.getGenderCode());
         System.out.println("Expected index: 1, index is: " + a.getGraphIndex());
         System.out.println("Movies: " + a.getMovies());
+        Movie extra = new Movie("Passengers");
+        a.addMovie(extra);
+        a.removeMovie(extra);
+        System.out.println("after removeMovie, number of movies Expected: 4, actual: " + a.getMovies().size());
         System.out.println(a);
     }
 }
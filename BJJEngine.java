@@ -0,0 +1,263 @@
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates the BJJ test (see HollywoodGraph.passBJJTest) without reading from the
+ * keyboard. Each movie's number of passed tests and share of female cast members are
+ * computed once, when the engine is created, so a BJJ evaluation only compares numbers
+ * and never walks a movie's cast. Many (minimum tests, minimum percent) settings can be
+ * evaluated at once, and a whole grid of settings can be evaluated in parallel.
+ * Counting the movies which pass (and listing them, by share of women) goes through a
+ * BJJIndex and takes O(log n) time per setting. When movies change, update() recomputes
+ * the numbers of those movies only, and the index is built again the next time it is
+ * used.
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class BJJEngine
+{
+    private static final double EPSILON = 0.00001; // tolerance used when comparing percents
+    private static final int CELLS_PER_TASK = 16; // grid cells evaluated by one fork/join task
+
+    private String[] titles; // movie titles, by movie index
+    private int[] numPassed; // number of passed tests, by movie index
+    private double[] femaleShare; // fraction of the cast that is female, by movie index
+    private BJJIndex index; // sorted views of the movies for fast counts, null until needed
+
+    /**
+     * The outcome of one BJJ evaluation: the movies passing enough tests, the movies with
+     * enough women, and the movies doing both (which pass the BJJ test)
+     */
+    public static class Result {
+        private int minTests;
+        private double minPercent;
+        private ArrayList<String> passedTests = new ArrayList<String>();
+        private ArrayList<String> passedWomen = new ArrayList<String>();
+        private ArrayList<String> passedBoth = new ArrayList<String>();
+
+        Result(int minTests, double minPercent){
+            this.minTests = minTests;
+            this.minPercent = minPercent;
+        }
+
+        /** @return the minimum number of passed tests used */
+        public int getMinTests(){ return minTests; }
+
+        /** @return the minimum percent (0-100) of women used */
+        public double getMinPercent(){ return minPercent; }
+
+        /** @return the titles of the movies which passed at least minTests tests */
+        public ArrayList<String> getPassedTests(){ return passedTests; }
+
+        /** @return the titles of the movies whose cast has at least minPercent women */
+        public ArrayList<String> getPassedWomen(){ return passedWomen; }
+
+        /** @return the titles of the movies which pass the full BJJ test */
+        public ArrayList<String> getPassed(){ return passedBoth; }
+
+        /** @return the number of movies which pass the full BJJ test */
+        public int getNumPassed(){ return passedBoth.size(); }
+
+        /** @return String representation of the result */
+        public String toString(){
+            return passedBoth.size() + " movies pass with at least " + minTests + " tests and "
+                + minPercent + "% women: " + passedBoth;
+        }
+    }
+
+    /**
+     * Constructor. Computes the numbers the BJJ test needs for each movie.
+     * @param movies the movies to evaluate, in movie index order
+     */
+    public BJJEngine(ArrayList<Movie> movies){
+        int n = movies.size();
+        titles = new String[n];
+        numPassed = new int[n];
+        femaleShare = new double[n];
+        for (int i = 0; i < n; i++){
+            Movie m = movies.get(i);
+            titles[i] = m.getTitle();
+            numPassed[i] = m.getNumPassedTests();
+            femaleShare[i] = m.getFemaleShare(); // kept up to date by the movie
+        }
+        index = new BJJIndex(titles, numPassed, femaleShare);
+    }
+
+    /**
+     * Brings the numbers up to date after some movies changed (their cast or test
+     * results) and movies were added to the end of the list.
+     * @param movies all the movies, in movie index order, including the new ones
+     * @param changed the indices of the movies that changed before the new ones
+     */
+    public synchronized void update(ArrayList<Movie> movies, int[] changed){
+        int old = titles.length;
+        int n = movies.size();
+        if (n > old){
+            titles = java.util.Arrays.copyOf(titles, n);
+            numPassed = java.util.Arrays.copyOf(numPassed, n);
+            femaleShare = java.util.Arrays.copyOf(femaleShare, n);
+        }
+        for (int i : changed)
+            recompute(movies, i);
+        for (int i = old; i < n; i++)
+            recompute(movies, i);
+        index = null; // built again when it is used
+    }
+
+    /**
+     * Helper for update(). Computes the numbers of the movie at index i.
+     */
+    private void recompute(ArrayList<Movie> movies, int i){
+        Movie m = movies.get(i);
+        titles[i] = m.getTitle();
+        numPassed[i] = m.getNumPassedTests();
+        femaleShare[i] = m.getFemaleShare();
+    }
+
+    /**
+     * Helper. Returns the index, first building it if the movies changed since it
+     * was last built.
+     */
+    private synchronized BJJIndex index(){
+        if (index == null)
+            index = new BJJIndex(titles, numPassed, femaleShare);
+        return index;
+    }
+
+    /**
+     * Getter for the number of movies
+     * @return the number of movies
+     */
+    public int getNumMovies(){
+        return titles.length;
+    }
+
+    /**
+     * Evaluates the BJJ test with one setting.
+     * @param minTests the minimum number of tests a movie must pass
+     * @param minPercent the minimum percent (0-100) of women in a movie's cast
+     * @return the movies passing each part of the test
+     */
+    public Result evaluate(int minTests, double minPercent){
+        Result r = new Result(minTests, minPercent);
+        double d = minPercent / 100;
+        for (int i = 0; i < titles.length; i++){
+            boolean enoughTests = numPassed[i] >= minTests;
+            boolean enoughWomen = femaleShare[i] - d > EPSILON;
+            if (enoughTests)
+                r.passedTests.add(titles[i]);
+            if (enoughWomen)
+                r.passedWomen.add(titles[i]);
+            if (enoughTests && enoughWomen)
+                r.passedBoth.add(titles[i]);
+        }
+        return r;
+    }
+
+    /**
+     * Counts the movies which pass the full BJJ test with one setting, using the index.
+     * @param minTests the minimum number of tests a movie must pass
+     * @param minPercent the minimum percent (0-100) of women in a movie's cast
+     * @return the number of movies which pass
+     */
+    public int count(int minTests, double minPercent){
+        return index().count(minTests, minPercent);
+    }
+
+    /**
+     * Lists the movies which pass the full BJJ test with one setting, using the index.
+     * @param minTests the minimum number of tests a movie must pass
+     * @param minPercent the minimum percent (0-100) of women in a movie's cast
+     * @return the titles of the movies which pass, by increasing share of women
+     */
+    public ArrayList<String> passing(int minTests, double minPercent){
+        return index().passing(minTests, minPercent);
+    }
+
+    /**
+     * Counts the movies which pass the full BJJ test for every combination of the given
+     * minimum numbers of tests and minimum percents.
+     * @param minTests the minimum numbers of tests (rows of the grid)
+     * @param minPercents the minimum percents of women (columns of the grid)
+     * @return the grid of counts: count[i][j] is for minTests[i] and minPercents[j]
+     */
+    public int[][] countGrid(int[] minTests, double[] minPercents){
+        int[][] counts = new int[minTests.length][minPercents.length];
+        BJJIndex index = index();
+        for (int i = 0; i < minTests.length; i++){
+            for (int j = 0; j < minPercents.length; j++)
+                counts[i][j] = index.count(minTests[i], minPercents[j]);
+        }
+        return counts;
+    }
+
+    /**
+     * Evaluates the BJJ test with many settings, given as pairs: setting i is
+     * (minTests[i], minPercents[i]).
+     * @param minTests the minimum numbers of tests
+     * @param minPercents the minimum percents of women, same length as minTests
+     * @return the result of each setting, in the same order
+     */
+    public Result[] evaluate(int[] minTests, double[] minPercents){
+        if (minTests.length != minPercents.length)
+            throw new IllegalArgumentException("minTests and minPercents must have the same length");
+        Result[] results = new Result[minTests.length];
+        for (int i = 0; i < results.length; i++)
+            results[i] = evaluate(minTests[i], minPercents[i]);
+        return results;
+    }
+
+    /**
+     * Evaluates the BJJ test for every combination of the given minimum numbers of tests
+     * and minimum percents, on several threads.
+     * @param minTests the minimum numbers of tests (rows of the grid)
+     * @param minPercents the minimum percents of women (columns of the grid)
+     * @param numThreads the number of threads to use (at least 1)
+     * @return the grid of results: result[i][j] is for minTests[i] and minPercents[j]
+     */
+    public Result[][] evaluateGrid(int[] minTests, double[] minPercents, int numThreads){
+        Result[][] grid = new Result[minTests.length][minPercents.length];
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, numThreads));
+        try {
+            pool.invoke(new GridTask(minTests, minPercents, grid, 0, minTests.length * minPercents.length));
+        } finally {
+            pool.shutdown();
+        }
+        return grid;
+    }
+
+    /**
+     * Fork/join task for evaluateGrid(). Evaluates grid cells [from, to), numbered row
+     * by row, splitting the range in half while it is large.
+     */
+    private class GridTask extends RecursiveAction {
+        private int[] minTests;
+        private double[] minPercents;
+        private Result[][] grid;
+        private int from, to;
+
+        GridTask(int[] minTests, double[] minPercents, Result[][] grid, int from, int to){
+            this.minTests = minTests;
+            this.minPercents = minPercents;
+            this.grid = grid;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected void compute(){
+            if (to - from > CELLS_PER_TASK){
+                int mid = (from + to) / 2;
+                invokeAll(new GridTask(minTests, minPercents, grid, from, mid),
+                          new GridTask(minTests, minPercents, grid, mid, to));
+                return;
+            }
+            int cols = minPercents.length;
+            for (int cell = from; cell < to; cell++)
+                grid[cell / cols][cell % cols] = evaluate(minTests[cell / cols], minPercents[cell % cols]);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Index for the BJJ test which answers "how many movies pass at least k tests and have
+ * more than p percent women" with a binary search instead of a pass over every movie.
+ * For each possible minimum k (0 up to the number of tests) the index keeps the movies
+ * which pass at least k tests, sorted by their share of women. The movies passing a
+ * query are then exactly a suffix of one of these lists.
+ *
+ * Building the index takes O((tests + 1) * n) time and space for n movies.
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class BJJIndex
+{
+    private static final double EPSILON = 0.00001; // same tolerance as BJJEngine
+
+    private String[] titles; // movie titles, by movie index
+    private int[][] moviesByShare; // [k]: movies passing at least k tests, by increasing share of women
+    private double[][] shares; // [k][i]: share of women of moviesByShare[k][i]
+
+    /**
+     * Constructor. Builds the index from each movie's numbers.
+     * @param titles the titles of the movies, by movie index
+     * @param numPassed the number of passed tests of each movie
+     * @param femaleShare the fraction (0-1) of each movie's cast that is female
+     */
+    public BJJIndex(String[] titles, int[] numPassed, double[] femaleShare){
+        this.titles = titles;
+        int n = titles.length;
+        int maxPassed = 0;
+        for (int p : numPassed)
+            maxPassed = Math.max(maxPassed, p);
+
+        // all movies by increasing share; a movie with no cast never passes, so it goes first
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        double[] key = new double[n];
+        for (int i = 0; i < n; i++)
+            key[i] = Double.isNaN(femaleShare[i]) ? -1 : femaleShare[i];
+        Arrays.sort(order, (a, b) -> Double.compare(key[a], key[b]));
+
+        moviesByShare = new int[maxPassed + 1][];
+        shares = new double[maxPassed + 1][];
+        for (int k = 0; k <= maxPassed; k++){
+            int count = 0;
+            for (int p : numPassed){
+                if (p >= k) count++;
+            }
+            moviesByShare[k] = new int[count];
+            shares[k] = new double[count];
+            int pos = 0;
+            for (int i : order){
+                if (numPassed[i] >= k){
+                    moviesByShare[k][pos] = i;
+                    shares[k][pos] = key[i];
+                    pos++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the movies which pass the BJJ test with the given setting, in O(log n) time.
+     * @param minTests the minimum number of tests a movie must pass
+     * @param minPercent the minimum percent (0-100) of women in a movie's cast
+     * @return the number of movies which pass
+     */
+    public int count(int minTests, double minPercent){
+        int k = Math.max(0, minTests);
+        if (k >= moviesByShare.length)
+            return 0; // no movie passes that many tests
+        return shares[k].length - firstPassing(k, minPercent / 100);
+    }
+
+    /**
+     * Returns the movies which pass the BJJ test with the given setting. Only the passing
+     * movies are visited.
+     * @param minTests the minimum number of tests a movie must pass
+     * @param minPercent the minimum percent (0-100) of women in a movie's cast
+     * @return the titles of the movies which pass, by increasing share of women
+     */
+    public ArrayList<String> passing(int minTests, double minPercent){
+        ArrayList<String> result = new ArrayList<String>();
+        int k = Math.max(0, minTests);
+        if (k >= moviesByShare.length)
+            return result;
+        for (int i = firstPassing(k, minPercent / 100); i < moviesByShare[k].length; i++)
+            result.add(titles[moviesByShare[k][i]]);
+        return result;
+    }
+
+    /**
+     * Helper. Binary search for the first movie in moviesByShare[k] whose share of women
+     * is more than d (by at least EPSILON, as in the BJJ test).
+     * @return its position, or the length of the list if there is none
+     */
+    private int firstPassing(int k, double d){
+        double[] s = shares[k];
+        int low = 0, high = s.length; // the answer is in [low, high]
+        while (low < high){
+            int mid = (low + high) >>> 1;
+            if (s[mid] - d > EPSILON)
+                high = mid;
+            else low = mid + 1;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,377 @@
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming parser for cast/gender files, which are comma separated (RFC 4180) files
+ * with the header: "MOVIE","ACTOR","CHARACTER_NAME","TYPE","BILLING","GENDER".
+ * The file is memory-mapped and tokenized in place. Quoted fields may contain commas,
+ * line breaks and doubled quotes (""). Only the MOVIE, ACTOR and GENDER columns are
+ * turned into Strings; the other columns are skipped over. A movie title is decoded
+ * once for each run of rows with the same movie, and each distinct gender only once.
+ *
+ * The columns are found by name in the header, so they can come in any order. If the
+ * header does not name them, the columns of the standard layout are used.
+ *
+ * A delta file (see HollywoodGraph.applyDelta) is a cast file with one more column,
+ * CHANGE, which says whether the row is added (ADD) or removed (REMOVE). It is read
+ * with parseChanges().
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class CastFileParser
+{
+    /**
+     * Receives the rows of a cast file, in file order
+     */
+    public interface RowHandler {
+        /**
+         * Called once per row
+         * @param movie the MOVIE column
+         * @param actor the ACTOR column
+         * @param gender the GENDER column
+         */
+        void row(String movie, String actor, String gender);
+    }
+
+    /**
+     * Receives the rows of a delta file, in file order
+     */
+    public interface ChangeHandler {
+        /**
+         * Called once per row
+         * @param change the CHANGE column, or "ADD" if the file has no CHANGE column
+         * @param movie the MOVIE column
+         * @param actor the ACTOR column
+         * @param gender the GENDER column
+         */
+        void row(String change, String movie, String actor, String gender);
+    }
+
+    private static final long WINDOW = 1 << 28; // bytes mapped at a time (256MB)
+    private static final int MOVIE = 0, ACTOR = 1, GENDER = 2, CHANGE = 3; // roles of the kept columns
+    private static final String[] COLUMN_NAMES = {"MOVIE", "ACTOR", "GENDER", "CHANGE"};
+
+    private int[] columns = {0, 1, 5, -1}; // column number of each role, -1 if there is none
+    private boolean headerDone = false; // whether the header row has been read
+    private int[] start = new int[4], end = new int[4]; // bytes of each kept field in the current row
+    private boolean[] escaped = new boolean[4]; // whether a kept field contains doubled quotes
+    private String change = "ADD"; // CHANGE column of the current row
+    private byte[] scratch = new byte[256]; // bytes of the field being decoded
+
+    private byte[] lastMovie = new byte[0]; // bytes of the previous row's movie
+    private String lastMovieTitle = null; // and its decoded title
+    private byte[][] genderBytes = new byte[0][]; // bytes of each gender seen so far
+    private String[] genderNames = new String[0]; // and their decoded names
+
+    /**
+     * Reads a whole cast file and passes each row after the header to the handler.
+     * @param fileName the cast file
+     * @param handler receives the rows
+     * @throws IOException if the file cannot be read
+     */
+    public void parse(String fileName, RowHandler handler) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            parse(channel, 0, channel.size(), handler);
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Reads a whole delta file and passes each row after the header to the handler.
+     * @param fileName the delta file
+     * @param handler receives the rows
+     * @throws IOException if the file cannot be read
+     */
+    public void parseChanges(String fileName, ChangeHandler handler) throws IOException {
+        parse(fileName, (movie, actor, gender) -> handler.row(change, movie, actor, gender));
+    }
+
+    /**
+     * Reads the rows of a cast file between two row boundaries and passes them to the
+     * handler. If the header has not been read yet, the first row is taken as the header.
+     * @param channel the open cast file
+     * @param from position of the first byte of a row
+     * @param to position just past the last row to read
+     * @param handler receives the rows
+     * @throws IOException if the file cannot be read
+     */
+    public void parse(FileChannel channel, long from, long to, RowHandler handler) throws IOException {
+        long pos = from; // start of the first row not read yet
+        // map the range one window at a time, each window starting at a row boundary
+        while (pos < to){
+            long length = Math.min(WINDOW, to - pos);
+            boolean atEnd = pos + length == to;
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, pos, length);
+            int consumed = parseRows(buf, 0, (int) length, atEnd, handler);
+            if (consumed == 0 && !atEnd)
+                throw new IOException("Row at byte " + pos + " is too long");
+            pos += consumed;
+        }
+    }
+
+    /**
+     * Reads the header row of a cast file.
+     * @param channel the open cast file
+     * @return the position of the first row after the header
+     * @throws IOException if the file cannot be read
+     */
+    public long readHeader(FileChannel channel) throws IOException {
+        long length = Math.min(WINDOW, channel.size());
+        ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        int end = 0;
+        boolean quoted = false;
+        while (end < length && (quoted || buf.get(end) != '\n')){
+            if (buf.get(end) == '"')
+                quoted = !quoted;
+            end++;
+        }
+        end = (int) Math.min(end + 1, length); // include the line break
+        parseRows(buf, 0, end, true, (movie, actor, gender) -> { });
+        return end;
+    }
+
+    /**
+     * Splits the rows of a cast file into pieces of about the same size, so that they
+     * can be parsed separately. Pieces end at line breaks, so rows must not contain
+     * line breaks inside quoted fields.
+     * @param channel the open cast file
+     * @param from position of the first row to split
+     * @param numPieces the number of pieces wanted
+     * @return the boundaries of the pieces: piece i is [bounds[i], bounds[i+1]), and the
+     * last boundary is the size of the file
+     * @throws IOException if the file cannot be read
+     */
+    public static long[] splitAtRows(FileChannel channel, long from, int numPieces) throws IOException {
+        long size = channel.size();
+        long[] bounds = new long[numPieces + 1];
+        bounds[0] = from;
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        for (int i = 1; i < numPieces; i++){
+            long pos = Math.max(bounds[i - 1], from + (size - from) * i / numPieces);
+            boolean found = pos == bounds[i - 1]; // the previous piece already ends at a row
+            // move forward to just past the next line break
+            while (!found && pos < size){
+                buf.clear();
+                int n = channel.read(buf, pos);
+                for (int k = 0; k < n && !found; k++){
+                    pos++;
+                    found = buf.get(k) == '\n';
+                }
+            }
+            bounds[i] = Math.min(pos, size);
+        }
+        bounds[numPieces] = size;
+        return bounds;
+    }
+
+    /**
+     * Parses the complete rows in buf[from, to). If the header has not been read yet,
+     * the first row is taken as the header.
+     * @param buf the bytes of the file
+     * @param from position of the first byte of a row
+     * @param to position just past the last byte to read
+     * @param atEnd whether to is the end of the file, so that a row cut off at to is
+     * still complete
+     * @param handler receives the rows
+     * @return the position just past the last complete row that was read
+     */
+    public int parseRows(ByteBuffer buf, int from, int to, boolean atEnd, RowHandler handler){
+        int pos = from;
+        while (pos < to){
+            int rowStart = pos;
+            int col = 0; // column number of the current field
+            boolean emptyLine = false;
+            boolean rowDone = false;
+            String[] header = headerDone ? null : new String[16];
+            while (!rowDone){
+                int fieldStart, fieldEnd;
+                boolean fieldEscaped = false;
+                if (pos >= to){
+                    if (!atEnd) return rowStart; // the row continues past to
+                    fieldStart = fieldEnd = pos; // empty last field of the file
+                } else if (buf.get(pos) == '"'){
+                    // quoted field: ends at a quote which is not doubled
+                    pos++;
+                    fieldStart = pos;
+                    while (true){
+                        if (pos >= to){
+                            if (!atEnd) return rowStart; // the row continues past to
+                            break;
+                        }
+                        if (buf.get(pos) == '"'){
+                            if (pos + 1 < to && buf.get(pos + 1) == '"'){
+                                fieldEscaped = true;
+                                pos += 2;
+                                continue;
+                            }
+                            if (pos + 1 >= to && !atEnd) return rowStart;
+                            break;
+                        }
+                        pos++;
+                    }
+                    fieldEnd = Math.min(pos, to);
+                    pos = Math.min(pos + 1, to); // skip the closing quote
+                    while (pos < to && !isSeparator(buf.get(pos)))
+                        pos++; // tolerate stray characters after the closing quote
+                } else {
+                    fieldStart = pos;
+                    while (pos < to && !isSeparator(buf.get(pos)))
+                        pos++;
+                    fieldEnd = pos;
+                    emptyLine = col == 0 && fieldEnd == fieldStart && (pos >= to || buf.get(pos) != ',');
+                }
+                if (pos >= to && !atEnd)
+                    return rowStart; // the row continues past to
+
+                if (header != null){
+                    if (col == header.length)
+                        header = java.util.Arrays.copyOf(header, col * 2);
+                    header[col] = decode(buf, fieldStart, fieldEnd, fieldEscaped);
+                }
+                for (int role = 0; role < columns.length; role++){
+                    if (columns[role] == col){
+                        start[role] = fieldStart;
+                        end[role] = fieldEnd;
+                        escaped[role] = fieldEscaped;
+                    }
+                }
+                col++;
+
+                if (pos >= to){
+                    rowDone = true;
+                } else {
+                    byte b = buf.get(pos++);
+                    if (b == '\r'){
+                        if (pos < to && buf.get(pos) == '\n')
+                            pos++;
+                        rowDone = true;
+                    } else if (b == '\n'){
+                        rowDone = true;
+                    }
+                }
+            }
+
+            if (emptyLine && col == 1)
+                continue; // blank line
+            if (header != null){
+                useHeader(header, col);
+                headerDone = true;
+            } else if (col > columns[MOVIE] && col > columns[ACTOR] && col > columns[GENDER]
+                       && col > columns[CHANGE]){
+                if (columns[CHANGE] != -1)
+                    change = decode(buf, start[CHANGE], end[CHANGE], escaped[CHANGE]).trim();
+                handler.row(movie(buf), decode(buf, start[ACTOR], end[ACTOR], escaped[ACTOR]), gender(buf));
+            } // rows with missing columns are skipped
+        }
+        return pos;
+    }
+
+    /**
+     * Marks the header as read, so that parseRows() treats every row as data. Used
+     * when a file is parsed in pieces and the header is in another piece.
+     * @param other a parser that has read the header
+     */
+    public void useHeaderOf(CastFileParser other){
+        columns = other.columns.clone();
+        headerDone = true;
+    }
+
+    /**
+     * Helper. Finds the kept columns by name in the header row.
+     */
+    private void useHeader(String[] header, int numColumns){
+        for (int role = 0; role < columns.length; role++){
+            for (int col = 0; col < numColumns; col++){
+                if (header[col].trim().equalsIgnoreCase(COLUMN_NAMES[role]))
+                    columns[role] = col;
+            }
+        }
+    }
+
+    /**
+     * Helper. Returns true if the byte ends a field.
+     */
+    private static boolean isSeparator(byte b){
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    /**
+     * Helper. Returns the movie of the current row, reusing the previous row's title
+     * when the bytes are the same.
+     */
+    private String movie(ByteBuffer buf){
+        if (!escaped[MOVIE] && sameBytes(buf, start[MOVIE], end[MOVIE], lastMovie))
+            return lastMovieTitle;
+        lastMovieTitle = decode(buf, start[MOVIE], end[MOVIE], escaped[MOVIE]);
+        lastMovie = new byte[end[MOVIE] - start[MOVIE]];
+        buf.get(start[MOVIE], lastMovie);
+        return lastMovieTitle;
+    }
+
+    /**
+     * Helper. Returns the gender of the current row, decoding each distinct gender
+     * only the first time it is seen.
+     */
+    private String gender(ByteBuffer buf){
+        if (!escaped[GENDER]){
+            for (int i = 0; i < genderBytes.length; i++){
+                if (sameBytes(buf, start[GENDER], end[GENDER], genderBytes[i]))
+                    return genderNames[i];
+            }
+        }
+        String g = decode(buf, start[GENDER], end[GENDER], escaped[GENDER]);
+        if (!escaped[GENDER]){
+            int n = genderBytes.length;
+            genderBytes = java.util.Arrays.copyOf(genderBytes, n + 1);
+            genderNames = java.util.Arrays.copyOf(genderNames, n + 1);
+            genderBytes[n] = new byte[end[GENDER] - start[GENDER]];
+            buf.get(start[GENDER], genderBytes[n]);
+            genderNames[n] = g;
+        }
+        return g;
+    }
+
+    /**
+     * Helper. Returns true if buf[from, to) holds exactly the given bytes.
+     */
+    private static boolean sameBytes(ByteBuffer buf, int from, int to, byte[] bytes){
+        if (to - from != bytes.length)
+            return false;
+        for (int i = 0; i < bytes.length; i++){
+            if (buf.get(from + i) != bytes[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Helper. Decodes the UTF-8 bytes buf[from, to) of a field, turning doubled
+     * quotes into single ones if the field is escaped.
+     */
+    private String decode(ByteBuffer buf, int from, int to, boolean isEscaped){
+        if (scratch.length < to - from)
+            scratch = new byte[Math.max(to - from, scratch.length * 2)];
+        int n = 0;
+        if (!isEscaped){
+            n = to - from;
+            buf.get(from, scratch, 0, n);
+        } else {
+            for (int i = from; i < to; i++){
+                byte b = buf.get(i);
+                scratch[n++] = b;
+                if (b == '"')
+                    i++; // skip the second quote of the pair
+            }
+        }
+        return new String(scratch, 0, n, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,259 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Writes synthetic cast/gender and tests files, in the formats readData() and
+ * readTests() of HollywoodGraph read, so that the program can be tried on catalogs much
+ * larger than the bundled ones. Like real catalogs, the generated ones have a few very
+ * prolific actors and many actors with only one or two movies: actors are picked for
+ * casts with a power-law (Zipf) weight, so the number of movies an actor is in has a
+ * heavy tail. Cast sizes are heavy-tailed too. Every actor is in at least one movie,
+ * and the same settings and seed always give the same files.
+ *
+ * From the command line:
+ *   java DatasetGenerator castFile testsFile numMovies numActors [femaleRatio] [exponent] [seed]
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class DatasetGenerator
+{
+    /** The tests of the bundled tests files, in the same order */
+    public static final String[] TEST_NAMES = {"bechdel", "peirce", "landau", "feldman",
+        "villareal", "hagen", "ko", "villarobos", "waithe", "koeze_dottle", "uphold", "white",
+        "rees-davies"};
+
+    private static final int MIN_CAST = 3; // smallest cast of a movie
+    private static final int MAX_CAST = 200; // largest cast of a movie
+    private static final double CAST_SHAPE = 1.5; // Pareto shape of cast sizes (mean about 9)
+    private static final double UNKNOWN_GENDER = 0.1; // share of actors whose gender is "Unknown"
+
+    private int numMovies, numActors;
+    private double femaleRatio; // share of actors of known gender who are female
+    private double exponent; // Zipf exponent of the actors' weights
+    private long seed;
+
+    /**
+     * Constructor
+     * @param numMovies the number of movies
+     * @param numActors the number of actors, at most the total size of the casts
+     * @param femaleRatio the share (0-1) of the actors of known gender who are female
+     * @param exponent the power-law exponent of how often actors are cast: the actor
+     * of rank r is picked with weight 1/r^exponent (0 picks every actor equally often)
+     * @param seed the seed of the random numbers
+     */
+    public DatasetGenerator(int numMovies, int numActors, double femaleRatio, double exponent, long seed){
+        if (numMovies < 1 || numActors < 1)
+            throw new IllegalArgumentException("There must be at least one movie and one actor");
+        this.numMovies = numMovies;
+        this.numActors = numActors;
+        this.femaleRatio = femaleRatio;
+        this.exponent = exponent;
+        this.seed = seed;
+    }
+
+    /**
+     * Constructor with 40% women, exponent 1 and seed 42
+     * @param numMovies the number of movies
+     * @param numActors the number of actors
+     */
+    public DatasetGenerator(int numMovies, int numActors){
+        this(numMovies, numActors, 0.4, 1.0, 42);
+    }
+
+    /**
+     * Title of the movie with the given number
+     * @param i the number of the movie
+     * @return its title
+     */
+    public static String movieTitle(int i){
+        return "Movie " + i;
+    }
+
+    /**
+     * Name of the actor with the given number
+     * @param i the number of the actor
+     * @return their name
+     */
+    public static String actorName(int i){
+        return "Actor " + i;
+    }
+
+    /**
+     * Generates the catalog and writes both files.
+     * @param castFile the cast/gender file to write
+     * @param testsFile the tests file to write
+     * @throws IOException if a file cannot be written
+     */
+    public void write(String castFile, String testsFile) throws IOException {
+        Random random = new Random(seed);
+        String[] genders = genders(random);
+        int[][] casts = casts(random);
+
+        int[] numFemale = new int[numMovies];
+        BufferedWriter out = writer(castFile);
+        try {
+            out.write("\"MOVIE\",\"ACTOR\",\"CHARACTER_NAME\",\"TYPE\",\"BILLING\",\"GENDER\"\n");
+            for (int m = 0; m < numMovies; m++){
+                for (int b = 0; b < casts[m].length; b++){
+                    int a = casts[m][b];
+                    String gender = genders[a];
+                    if (gender.equals("Female"))
+                        numFemale[m]++;
+                    out.write("\"" + movieTitle(m) + "\",\"" + actorName(a) + "\",\"Character " + (b + 1)
+                        + "\",\"" + (b < 3 ? "Leading" : "Supporting") + "\",\"" + (b + 1)
+                        + "\",\"" + gender + "\"\n");
+                }
+            }
+        } finally {
+            out.close();
+        }
+
+        out = writer(testsFile);
+        try {
+            out.write("movie," + String.join(",", TEST_NAMES) + "\n");
+            for (int m = 0; m < numMovies; m++){
+                // movies with more women pass more tests, as in the real data
+                double p = 0.2 + 0.6 * numFemale[m] / casts[m].length;
+                StringBuilder line = new StringBuilder(movieTitle(m));
+                for (int t = 0; t < TEST_NAMES.length; t++)
+                    line.append(random.nextDouble() < p ? ",1" : ",0");
+                out.write(line.append('\n').toString());
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Helper. Picks the gender of every actor.
+     */
+    private String[] genders(Random random){
+        String[] genders = new String[numActors];
+        for (int a = 0; a < numActors; a++){
+            if (random.nextDouble() < UNKNOWN_GENDER)
+                genders[a] = "Unknown";
+            else genders[a] = random.nextDouble() < femaleRatio ? "Female" : "Male";
+        }
+        return genders;
+    }
+
+    /**
+     * Helper. Picks the cast of every movie. The first numActors places, spread at
+     * random over the movies, go to each actor once, so every actor is in some movie;
+     * the other places go to actors picked by weight.
+     */
+    private int[][] casts(Random random){
+        int[][] casts = new int[numMovies][];
+        long places = 0;
+        for (int m = 0; m < numMovies; m++){
+            double size = MIN_CAST / Math.pow(1 - random.nextDouble(), 1 / CAST_SHAPE);
+            casts[m] = new int[(int) Math.min(MAX_CAST, Math.min(numActors, size))];
+            places += casts[m].length;
+        }
+        // make room for every actor if the casts are too small
+        for (int m = 0; places < numActors; m = (m + 1) % numMovies){
+            if (casts[m].length < numActors){
+                casts[m] = new int[casts[m].length + 1];
+                places++;
+            }
+        }
+
+        // rank of each actor, so prolific actors are not simply the first numbers
+        int[] byRank = new int[numActors];
+        for (int a = 0; a < numActors; a++)
+            byRank[a] = a;
+        shuffle(byRank, random);
+        double[] cumulative = new double[numActors]; // cumulative weight up to each rank
+        double total = 0;
+        for (int r = 0; r < numActors; r++){
+            total += Math.pow(r + 1, -exponent);
+            cumulative[r] = total;
+        }
+
+        // all places in a random order (by movie); the first numActors get each actor once
+        int[] placeMovie = new int[(int) places];
+        int p = 0;
+        for (int m = 0; m < numMovies; m++){
+            for (int b = 0; b < casts[m].length; b++)
+                placeMovie[p++] = m;
+        }
+        shuffle(placeMovie, random);
+        int[] firstPlace = new int[numMovies]; // places of each movie already given to newcomers
+        for (int a = 0; a < numActors; a++){
+            int m = placeMovie[a];
+            casts[m][firstPlace[m]++] = a;
+        }
+
+        for (int m = 0; m < numMovies; m++){
+            int[] cast = casts[m];
+            for (int b = firstPlace[m]; b < cast.length; b++){
+                int a;
+                do {
+                    int r = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                    a = byRank[Math.min(numActors - 1, r < 0 ? -r - 1 : r)];
+                } while (contains(cast, b, a)); // nobody is listed twice in one movie
+                cast[b] = a;
+            }
+            shuffle(cast, random); // billing order does not follow how prolific actors are
+        }
+        return casts;
+    }
+
+    /**
+     * Helper. Returns true if a is one of the first n numbers of the array.
+     */
+    private static boolean contains(int[] array, int n, int a){
+        for (int i = 0; i < n; i++){
+            if (array[i] == a)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Helper. Shuffles an array in place.
+     */
+    private static void shuffle(int[] array, Random random){
+        for (int i = array.length - 1; i > 0; i--){
+            int j = random.nextInt(i + 1);
+            int tmp = array[i];
+            array[i] = array[j];
+            array[j] = tmp;
+        }
+    }
+
+    /**
+     * Helper. Opens a UTF-8 file for writing.
+     */
+    private static BufferedWriter writer(String fileName) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * Writes a catalog with the settings given on the command line.
+     * @param args castFile testsFile numMovies numActors [femaleRatio] [exponent] [seed]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4){
+            System.out.println("Usage: java DatasetGenerator castFile testsFile numMovies numActors"
+                + " [femaleRatio] [exponent] [seed]");
+            return;
+        }
+        int numMovies = Integer.parseInt(args[2]);
+        int numActors = Integer.parseInt(args[3]);
+        double femaleRatio = args.length > 4 ? Double.parseDouble(args[4]) : 0.4;
+        double exponent = args.length > 5 ? Double.parseDouble(args[5]) : 1.0;
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 42;
+        new DatasetGenerator(numMovies, numActors, femaleRatio, exponent, seed).write(args[0], args[1]);
+        System.out.println("Wrote " + numMovies + " movies and " + numActors + " actors to "
+            + args[0] + " and " + args[1]);
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Arrays;
+
+/**
+ * Byte codes for the genders in cast files, so that actors and movies keep a one-byte
+ * code instead of a gender String. The genders of the bundled data have fixed codes
+ * (FEMALE, MALE and UNKNOWN); any other gender found in a file gets the next free code
+ * the first time it is seen, so no information is lost. Codes are shared by all graphs.
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class Gender
+{
+    public static final byte FEMALE = 0;
+    public static final byte MALE = 1;
+    public static final byte UNKNOWN = 2;
+
+    private static volatile String[] names = {"Female", "Male", "Unknown"}; // name of each code
+
+    /**
+     * Returns the code of a gender, giving it a new code if it has none yet
+     * @param name the gender as written in a cast file, such as "Female"
+     * @return its code
+     * @throws IllegalArgumentException if there are already too many genders for a byte
+     */
+    public static synchronized byte of(String name){
+        int code = find(name);
+        if (code != -1)
+            return (byte) code;
+        if (names.length > Byte.MAX_VALUE)
+            throw new IllegalArgumentException("Too many genders: " + name);
+        String[] more = Arrays.copyOf(names, names.length + 1);
+        more[names.length] = name;
+        names = more; // replaced, not changed, so readers never see a half-updated array
+        return (byte) (more.length - 1);
+    }
+
+    /**
+     * Returns the code of a gender without giving it one
+     * @param name the gender
+     * @return its code, or -1 if no actor has had that gender
+     */
+    public static int find(String name){
+        String[] known = names;
+        for (int code = 0; code < known.length; code++){
+            if (known[code].equals(name))
+                return code;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the name of a gender
+     * @param code the code of the gender
+     * @return its name, such as "Female"
+     */
+    public static String name(byte code){
+        return names[code];
+    }
+
+    /**
+     * Returns the number of genders with a code, so codes are 0 to count()-1
+     * @return the number of genders
+     */
+    public static int count(){
+        return names.length;
+    }
+}
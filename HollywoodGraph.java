@@ -1,10 +1,20 @@
 import javafoundations.*;
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.util.Scanner;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * HollywoodGraph creates an undirected graph with vertices that represent
@@ -20,65 +30,229 @@ public class HollywoodGraph
 {
     private ArrayList<Movie> movies; // keeps track of movies in data file
     private ArrayList<Actor> actors; // keeps track of actors in data file
-    private AdjListGraph<String> graph; // the actual graph with vertices and edges 
+    private StringDictionary movieTitles; // movie titles; a title's id is its index in movies list
+    private StringDictionary actorNames; // actor names; a name's id is its index in actors list
+    private VersionedGraph<String> versions; // published read-only copies of graph used for queries
+    private volatile int[] movieVertices = new int[0]; // vertex index of each movie, by id; -1 if not added yet
+    private volatile int[] actorVertices = new int[0]; // vertex index of each actor, by id; -1 if not added yet
+    private TestResults testResults; // per-test bitmaps of the movies that passed
+    private BJJEngine bjj; // precomputed numbers for the BJJ test
+    private SeparationCache separationCache = new SeparationCache(); // recent findActorSeparation answers
+    private volatile LandmarkOracle<String> landmarks; // approximate distances in one version of the graph
+    private static final int NUM_LANDMARKS = 16; // landmarks of the oracle behind estimateActorSeparation
+    private volatile PrunedLandmarkLabels distanceLabels; // exact distances in one version of the graph, null if not built
+    private static final int BATCH_GROUPS_PER_TASK = 4; // source actors handled by one fork/join task
+    private static final int PIECES_PER_THREAD = 4; // pieces of the cast file per thread when loading in parallel
 
     /**
-     * Constructor for objects of class HollywoodGraph
+     * Constructor for objects of class HollywoodGraph. The graph is built directly
+     * from the movies and actors read from the files.
      * @param fileName name of file to read data from
      * @param testsFiles the name of the file containing test result data
      */
     public HollywoodGraph(String fileName, String testsFile){
+        this(fileName, testsFile, 1);
+    }
+
+    /**
+     * Constructor for objects of class HollywoodGraph which reads the cast file with
+     * several threads (see readDataParallel). The result is the same as with one thread.
+     * @param fileName name of file to read data from
+     * @param testsFiles the name of the file containing test result data
+     * @param numThreads the number of threads used to read the cast file
+     */
+    public HollywoodGraph(String fileName, String testsFile, int numThreads){
         movies = new ArrayList<Movie>(); // empty movie collection
         actors = new ArrayList<Actor>(); // empty actor collection
-        readData(fileName); // fills movies and actors lists
+        movieTitles = new StringDictionary();
+        actorNames = new StringDictionary();
+        if (numThreads > 1)
+            readDataParallel(fileName, numThreads); // fills movies and actors lists
+        else readData(fileName);
         readTests(testsFile); // fills in passedTests variable for each movie
-        this.writeTGF("outputFile.txt");
-        // creates a graph using data from newly created tgf file
-        graph = AdjListGraph.AdjListGraphFromFile("outputFile.txt");
+        bjj = new BJJEngine(movies); // computes each movie's BJJ numbers once
+        // loading is done: freeze the graph built from the movies and actors lists for
+        // queries; it is only built again if a delta is applied (see VersionedGraph)
+        versions = new VersionedGraph<String>(this::buildGraph);
+        landmarks = new LandmarkOracle<String>(versions.current().getGraph(), NUM_LANDMARKS,
+                                               Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for objects of class HollywoodGraph which also saves the graph
+     * into a tgf file.
+     * @param fileName name of file to read data from
+     * @param testsFiles the name of the file containing test result data
+     * @param tgfFileName name of the tgf file to write the graph to
+     */
+    public HollywoodGraph(String fileName, String testsFile, String tgfFileName){
+        this(fileName, testsFile);
+        writeTGF(tgfFileName);
+    }
+
+    /**
+     * Creates the graph from the movies and actors lists, without going through a
+     * tgf file. Movies are added first and then actors, so every vertex gets the same
+     * index that writeTGF() gives it, and there is an edge for every time an actor is 
+     * listed in a movie. The vertex of each movie and actor is noted by id, so that
+     * queries find it without a lookup by name.
+     * @return the graph
+     */
+    private AdjListGraph<String> buildGraph(){
+        AdjListGraph<String> graph = new AdjListGraph<String>();
+        int count = 1; // keeps track of vertex number, as in the tgf file
+        int[] mVertices = new int[movies.size()];
+        int[] aVertices = new int[actors.size()];
+        for (Movie m : movies) {
+            mVertices[m.getId()] = count - 1;
+            m.setGraphIndex(count++); // sets the movie's index in the graph
+            graph.addVertex(m.getTitle());
+        }
+        for (Actor a : actors) {
+            aVertices[a.getId()] = count - 1;
+            a.setGraphIndex(count++); // sets the actor's index in the graph
+            graph.addVertex(a.getName());
+        }
+        movieVertices = mVertices;
+        actorVertices = aVertices;
+        for (Movie m : movies) {
+            ArrayList<Actor> actorsT = m.getActors(); // actors in each movie
+            for (Actor a : actorsT)
+                graph.addEdge(a.getName(), m.getTitle()); // both ways because its undirected
+        }
+        return graph;
     }
 
     /**
      * Populates the movies and actors lists based off data contained in the input file. Files
      * must contain data in the order: "MOVIE","ACTOR","CHARACTER_NAME","TYPE","BILLING","GENDER"
+     * (or name these columns in their header). The file is read by a CastFileParser, so quoted
+     * fields may contain commas.
      * @param fileName file with data to be read into a HollywoodGraph
      */
     public void readData(String fileName){
         try {
-            Scanner fileScan = new Scanner (new File(fileName));
-            fileScan.nextLine(); 
-            while (fileScan.hasNextLine()) {
-                // scanner scans by each line
-                String line = fileScan.nextLine(); // ignores the first line of the file which contains no information
-                line = line.replaceAll("\"", ""); // ignore quotation marks
-                Scanner lineScan = new Scanner(line).useDelimiter(","); // new scanner to traverse each line by commas 
-                while(lineScan.hasNext()){
-                    String movie = lineScan.next(); // first element in the line
-                    String actor = lineScan.next(); // second element in the line
-                    lineScan.next();
-                    lineScan.next();
-                    lineScan.next();
-                    String gender = lineScan.next(); // sixth and last element in the line
-                    Movie m = new Movie(movie); // creates a default new movie from data
-                    Actor a = new Actor(actor, gender); // creates a default new actor from data
-
-                    if(hasMovie(movie) != -1){ 
-                        // if the collection of movies already has the movie
-                        m = movies.get(hasMovie(movie)); // pre-existing movie assigned to newly created movie
-                    } else movies.add(m);
-
-                    if(hasActor(actor) != -1){
-                        // if the collection of actors already has the actor
-                        a = actors.get(hasActor(actor)); // pre-existing actor assigned to newly created actor
-                    } else actors.add(a);
-
-                    m.addActor(a); // adds actor to the movie's list of actors
-                    a.addMovie(m); // adds movie to the actor's list of movies
+            new CastFileParser().parse(fileName, (movie, actor, gender) -> {
+                Movie m = addMovie(movie); // existing movie, or a new one if not seen yet
+                Actor a = addActor(actor, gender); // existing actor, or a new one if not seen yet
+                m.addActor(a); // adds actor to the movie's list of actors
+                a.addMovie(m); // adds movie to the actor's list of movies
+            });
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Populates the movies and actors lists like readData(), but splits the file into
+     * pieces at line breaks and parses the pieces on several threads. Each piece is parsed
+     * into its own partial lists of names and rows, and the pieces are then merged in file
+     * order, so movies and actors end up in exactly the same order (with the same indices)
+     * as with readData(). Quoted fields must not contain line breaks.
+     * @param fileName file with data to be read into a HollywoodGraph
+     * @param numThreads the number of threads to parse with
+     */
+    public void readDataParallel(String fileName, int numThreads){
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, numThreads));
+        try {
+            RandomAccessFile file = new RandomAccessFile(fileName, "r");
+            try {
+                FileChannel channel = file.getChannel();
+                CastFileParser headerParser = new CastFileParser();
+                long dataStart = headerParser.readHeader(channel);
+                long[] bounds = CastFileParser.splitAtRows(channel, dataStart, numThreads * PIECES_PER_THREAD);
+
+                ArrayList<ForkJoinTask<PartialLoad>> pieces = new ArrayList<ForkJoinTask<PartialLoad>>();
+                for (int i = 0; i + 1 < bounds.length; i++){
+                    CastFileParser parser = new CastFileParser();
+                    parser.useHeaderOf(headerParser);
+                    pieces.add(pool.submit(new PieceTask(parser, channel, bounds[i], bounds[i + 1])));
                 }
-                lineScan.close(); // close scanner
+                for (ForkJoinTask<PartialLoad> piece : pieces)
+                    merge(piece.join()); // in file order
+            } finally {
+                file.close();
             }
-            fileScan.close(); // close scanner
         } catch (IOException ex) {
             System.out.println(ex);
+        } catch (UncheckedIOException ex) {
+            System.out.println(ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Helper for readDataParallel(). Adds the movies, actors and rows of one piece of
+     * the cast file, as readData() would have when reaching that piece.
+     * @param piece the parsed piece
+     */
+    private void merge(PartialLoad piece){
+        Movie[] m = new Movie[piece.movieTitles.size()]; // local movie number -> movie
+        for (int i = 0; i < m.length; i++)
+            m[i] = addMovie(piece.movieTitles.get(i));
+        Actor[] a = new Actor[piece.actorNames.size()]; // local actor number -> actor
+        for (int i = 0; i < a.length; i++)
+            a[i] = addActor(piece.actorNames.get(i), piece.actorGenders.get(i));
+        for (int r = 0; r < piece.numRows; r++){
+            Movie movie = m[piece.rowMovies[r]];
+            Actor actor = a[piece.rowActors[r]];
+            movie.addActor(actor);
+            actor.addMovie(movie);
+        }
+    }
+
+    /**
+     * The rows of one piece of a cast file, with movies and actors numbered (by their
+     * ids in the piece's own dictionaries) in the order they first appear in the piece.
+     * Filled in by a PieceTask.
+     */
+    private static class PartialLoad implements CastFileParser.RowHandler {
+        private StringDictionary movieTitles = new StringDictionary();
+        private StringDictionary actorNames = new StringDictionary();
+        private ArrayList<String> actorGenders = new ArrayList<String>(); // gender of first row
+        private int[] rowMovies = new int[64], rowActors = new int[64]; // local numbers, by row
+        private int numRows = 0;
+
+        public void row(String movie, String actor, String gender){
+            int m = movieTitles.add(movie);
+            int a = actorNames.add(actor);
+            if (a == actorGenders.size())
+                actorGenders.add(gender); // new actor
+            if (numRows == rowMovies.length){
+                rowMovies = java.util.Arrays.copyOf(rowMovies, numRows * 2);
+                rowActors = java.util.Arrays.copyOf(rowActors, numRows * 2);
+            }
+            rowMovies[numRows] = m;
+            rowActors[numRows] = a;
+            numRows++;
+        }
+    }
+
+    /**
+     * Fork/join task for readDataParallel(). Parses the rows of the cast file in
+     * [from, to) into a PartialLoad.
+     */
+    private static class PieceTask extends RecursiveTask<PartialLoad> {
+        private CastFileParser parser;
+        private FileChannel channel;
+        private long from, to;
+
+        PieceTask(CastFileParser parser, FileChannel channel, long from, long to){
+            this.parser = parser;
+            this.channel = channel;
+            this.from = from;
+            this.to = to;
+        }
+
+        protected PartialLoad compute(){
+            PartialLoad piece = new PartialLoad();
+            try {
+                parser.parse(channel, from, to, piece);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return piece;
         }
     }
 
@@ -86,22 +260,32 @@ public class HollywoodGraph
      * **Assumes all movies are already added to HollywoodGraph** 
      * (Which is true, since we call it in the constructor after readData() is called.)
      * Instantiates the passedLists variable for each movie in HollywoodGraph with result data contained 
-     * in the input file. Files must contain data in the order: 
+     * in the input file, and fills in the test results store with one bitmap per named test.
+     * Files must contain data in the order: 
      * movie,bechdel,peirce,landau,feldman,villareal,hagen,ko,villarobos,waithe,koeze_dottle,uphold,white,rees-davies
      * @param fileName file with test result data to be read into HollywoodGraph's movies
      */
     public void readTests(String fileName){
+        testResults = new TestResults(new String[0], movies.size()); // no tests if the file cannot be read
         try {
-            Scanner fileScan = new Scanner (new File(fileName));
-            fileScan.nextLine(); 
+            Scanner fileScan = new Scanner (new File(fileName), "UTF-8");
+            String[] header = fileScan.nextLine().split(","); // "movie" followed by the test names
+            testResults = new TestResults(java.util.Arrays.copyOfRange(header, 1, header.length), movies.size());
             while (fileScan.hasNextLine()) {
                 // scanner scans by each line
                 String line = fileScan.nextLine(); // ignores the first line of the file which contains no information
                 Scanner lineScan = new Scanner(line).useDelimiter(","); // new scanner to traverse each line by commas 
                 String movie = lineScan.next(); // first element in the line is always a movie title
+                int idx = hasMovie(movie); // looked up once per line instead of once per test
+                int test = 0; // position of the next result in the line
                 while(lineScan.hasNext()){
-                    if (hasMovie(movie) > -1)
-                        movies.get(hasMovie(movie)).addPassedTest(lineScan.nextInt()); // if movie exists, add result
+                    if (idx > -1){
+                        int result = lineScan.nextInt();
+                        movies.get(idx).addPassedTest(result); // if movie exists, add result
+                        if (result == 1 && test < testResults.getNumTests())
+                            testResults.setPassed(idx, test);
+                    } else lineScan.next(); // skip results of movies that are not in the cast file
+                    test++;
                 }
                 lineScan.close(); // close scanner
             }
@@ -111,6 +295,182 @@ public class HollywoodGraph
         }
     }
 
+    /**
+     * Applies an increment of the catalog (such as a day's new cast rows and test
+     * results) in place, without reading the whole catalog again. The cast delta is a
+     * cast file with one more column, CHANGE: a row marked REMOVE takes one listing of
+     * the actor in the movie away, and any other row adds one, as readData() would (new
+     * movies and actors go to the end of the lists and of the graph). Movies and actors
+     * left without any listing are kept. The tests delta has the layout of a tests file;
+     * for each movie it lists, its results replace the movie's earlier ones. Its tests
+     * are matched with the loaded tests by name, and results of tests it leaves out are
+     * kept. Either file name may be null.
+     *
+     * Only the movies, actors and vertices named in the deltas are touched: the graph's
+     * next version only reads the rows of the changed vertices again (see
+     * VersionedGraph), and only the BJJ numbers of the changed movies are recomputed.
+     * Separation queries may run while a delta is applied, and see the graph either
+     * before or after it; the listing, test and BJJ queries must not.
+     * @param castDeltaFile the cast delta file, or null
+     * @param testsDeltaFile the tests delta file, or null
+     */
+    public void applyDelta(String castDeltaFile, String testsDeltaFile){
+        ArrayList<String[]> rows = new ArrayList<String[]>(); // {change, movie, actor, gender}
+        if (castDeltaFile != null){
+            try {
+                new CastFileParser().parseChanges(castDeltaFile, (change, movie, actor, gender) ->
+                    rows.add(new String[] {change, movie, actor, gender}));
+            } catch (IOException ex) {
+                System.out.println(ex);
+            }
+        }
+        int oldMovies = movies.size();
+        BitSet changed = new BitSet(); // indices of the movies whose numbers changed
+        if (!rows.isEmpty()){
+            boolean added = false, removed = false;
+            for (String[] row : rows){
+                if (row[0].equalsIgnoreCase("REMOVE"))
+                    removed = true;
+                else added = true;
+            }
+            versions.update(batch -> {
+                for (String[] row : rows){
+                    if (row[0].equalsIgnoreCase("REMOVE"))
+                        removeListing(batch, row[1], row[2], changed);
+                    else addListing(batch, row[1], row[2], row[3], changed);
+                }
+            });
+            separationCache.graphChanged(versions.getVersion(), added, removed);
+        }
+        testResults.addMovies(movies.size());
+        if (testsDeltaFile != null)
+            readTestsDelta(testsDeltaFile, changed);
+        bjj.update(movies, changed.get(0, oldMovies).stream().toArray()); // new movies are always recomputed
+    }
+
+    /**
+     * Helper for applyDelta(). Adds a listing of an actor in a movie, creating the
+     * movie and the actor (and their vertices) if they are new.
+     */
+    private void addListing(Graph<String> batch, String title, String name, String gender, BitSet changed){
+        int numMovies = movies.size();
+        Movie m = addMovie(title);
+        if (movies.size() > numMovies){ // new movie
+            batch.addVertex(title);
+            m.setGraphIndex(batch.getNumVertices()); // counted from 1, as in the tgf file
+            movieVertices = withVertex(movieVertices, m.getId(), batch.getNumVertices() - 1);
+        }
+        int numActors = actors.size();
+        Actor a = addActor(name, gender);
+        if (actors.size() > numActors){ // new actor
+            batch.addVertex(name);
+            a.setGraphIndex(batch.getNumVertices());
+            actorVertices = withVertex(actorVertices, a.getId(), batch.getNumVertices() - 1);
+        }
+        m.addActor(a);
+        a.addMovie(m);
+        batch.addEdge(name, title);
+        changed.set(m.getId());
+    }
+
+    /**
+     * Helper for addListing(). Notes the vertex of a new movie or actor in an array of
+     * vertices by id, growing it if needed. Queries may read the array meanwhile: slots
+     * not filled yet hold -1, and a new vertex is past the end of the versions they use.
+     * @param vertices the vertex of each id
+     * @param id the id of the new movie or actor
+     * @param v its vertex index
+     * @return the array holding the vertex, to be published in place of vertices
+     */
+    private static int[] withVertex(int[] vertices, int id, int v){
+        if (id >= vertices.length){
+            int old = vertices.length;
+            vertices = java.util.Arrays.copyOf(vertices, Math.max(id + 1, 2 * old));
+            java.util.Arrays.fill(vertices, old, vertices.length, -1);
+        }
+        vertices[id] = v;
+        return vertices;
+    }
+
+    /**
+     * Helper for applyDelta(). Removes one listing of an actor in a movie, if there
+     * is one.
+     */
+    private void removeListing(Graph<String> batch, String title, String name, BitSet changed){
+        int mIdx = hasMovie(title);
+        int aIdx = hasActor(name);
+        if (mIdx == -1 || aIdx == -1)
+            return;
+        Movie m = movies.get(mIdx);
+        Actor a = actors.get(aIdx);
+        if (!m.removeActor(a))
+            return; // the actor is not listed in the movie
+        a.removeMovie(m);
+        batch.removeEdge(name, title); // one of the arcs each way, so other listings keep the edge
+        changed.set(mIdx);
+    }
+
+    /**
+     * Helper for applyDelta(). Replaces the test results of the movies listed in a
+     * tests delta file. Movies that are not in the graph are skipped.
+     */
+    private void readTestsDelta(String fileName, BitSet changed){
+        try {
+            Scanner fileScan = new Scanner (new File(fileName), "UTF-8");
+            String[] header = fileScan.nextLine().split(","); // "movie" followed by the test names
+            int[] test = new int[header.length]; // position of each column's test, -1 if not loaded
+            for (int c = 1; c < header.length; c++)
+                test[c] = testResults.getTestIndex(header[c].trim());
+            while (fileScan.hasNextLine()) {
+                String[] fields = fileScan.nextLine().split(",");
+                int idx = hasMovie(fields[0]);
+                if (idx == -1)
+                    continue;
+                Movie m = movies.get(idx);
+                int[] results = new int[testResults.getNumTests()]; // the earlier results, then the new ones
+                for (int t = 0; t < results.length && t < m.getNumTests(); t++)
+                    results[t] = m.passedTest(t) ? 1 : 0;
+                for (int c = 1; c < fields.length && c < header.length; c++){
+                    if (test[c] != -1)
+                        results[test[c]] = Integer.parseInt(fields[c].trim());
+                }
+                m.clearTests();
+                for (int t = 0; t < results.length; t++){
+                    m.addPassedTest(results[t]);
+                    if (results[t] == 1)
+                        testResults.setPassed(idx, t);
+                    else testResults.clearPassed(idx, t);
+                }
+                changed.set(idx);
+            }
+            fileScan.close(); // close scanner
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Getter for the store of test results, which has a bitmap of the movies passing
+     * each named test. Bit i of the bitmaps stands for the movie at index i (see hasMovie)
+     * @return the test results store
+     */
+    public TestResults getTestResults(){
+        return testResults;
+    }
+
+    /**
+     * Given a bitmap of movies (such as the result of a TestResults query), returns the
+     * titles of the movies in it
+     * @param b the bitmap, where bit i stands for the movie at index i
+     * @return the titles of the movies, in movie index order
+     */
+    public ArrayList<String> getMovieTitles(Bitmap b){
+        ArrayList<String> titles = new ArrayList<String>();
+        for (int i = b.nextSetBit(0); i >= 0; i = b.nextSetBit(i + 1))
+            titles.add(movies.get(i).getTitle());
+        return titles;
+    }
+
     /**
      * Using the file that the Hollywood Graph is constructed with, writes the data into a 
      * tgf file, with vertices being represented by movies and actors, and edges if an actor 
@@ -157,35 +517,77 @@ public class HollywoodGraph
         }
     }
 
+    /**
+     * Saves a binary snapshot of the graph, its actors' genders and its movies' test
+     * results, which can later be opened with HollywoodSnapshot.open() without reading
+     * the data files again. If the file cannot be written, a message is printed.
+     * @param fileName file that the snapshot is written to
+     */
+    public void saveSnapshot(String fileName){
+        try {
+            HollywoodSnapshot.write(fileName, movies, actors, movieVertices, actorVertices,
+                                    versions.current().getGraph());
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
     /**
      * Finds whether an actor already exists in a HollywoodGraph's actor list or not. Returns
      * -1 if the actor is not in the list and returns the actor's index in the actor list if they
-     * do exist.
+     * do exist. The index is the id of the name in the dictionary of actor names, so the
+     * lookup takes constant time on average.
      * @param aName name of actor to check for in the list of actors
      * @return the index of the actor in the actor list
      */
     public int hasActor(String aName){
-        for(int i = 0; i < actors.size(); i++){
-            if(actors.get(i).getName().equals(aName))
-                return i;
-        }
-        return -1;
+        return actorNames.getId(aName);
     }
 
     /**
      * Finds whether a movie already exists in a HollywoodGraph's movies list or not. Returns
      * -1 if the movie is not in the list and returns the movie's index in the movie list if it
-     * does exist.
+     * does exist. The index is the id of the title in the dictionary of movie titles, so the
+     * lookup takes constant time on average.
      * @param mTitle title of movie to check for in the movie list
      * @return the index of the movie in the movie list
      */
     public int hasMovie(String mTitle){
-        for(int i = 0; i < movies.size(); i++){
-            if(movies.get(i).getTitle().equals(mTitle)){
-                return i;
-            }
-        }
-        return -1;
+        return movieTitles.getId(mTitle);
+    }
+
+    /**
+     * Helper for reading data. Returns the movie with the given title, first adding a
+     * new movie to the end of the movies list (and its title to the dictionary) if there is
+     * none yet.
+     * @param mTitle title of the movie
+     * @return the movie with the given title
+     */
+    private Movie addMovie(String mTitle){
+        int idx = hasMovie(mTitle);
+        if (idx != -1)
+            return movies.get(idx); // pre-existing movie
+        Movie m = new Movie(movieTitles, movieTitles.add(mTitle)); // id is the index it will have in the list
+        movies.add(m);
+        return m;
+    }
+
+    /**
+     * Helper for reading data. Returns the actor with the given name, first adding a
+     * new actor to the end of the actors list (and its name to the dictionary) if there is
+     * none yet.
+     * The gender is only used when a new actor is created.
+     * @param aName name of the actor
+     * @param gender gender of the actor
+     * @return the actor with the given name
+     */
+    private Actor addActor(String aName, String gender){
+        int idx = hasActor(aName);
+        if (idx != -1)
+            return actors.get(idx); // pre-existing actor
+        Actor a = new Actor(actorNames, actorNames.add(aName), Gender.of(gender)); // id is the index it will have in the list
+        actors.add(a);
+        return a;
     }
 
     /**
@@ -216,37 +618,438 @@ public class HollywoodGraph
 
     /**
      * Task 2.2
-     * Given two actors a1 and a2 (here represented by their String names), performs
-     * a BFS traversal of the graph to determine the number of movies that separate 
-     * the actors, noninclusive of the movie in which the actors actually costar with 
-     * another. 
+     * Given two actors a1 and a2 (here represented by their String names), finds
+     * the number of movies that separate the actors, noninclusive of the movie in 
+     * which the actors actually costar with another. Actors who costar in a movie 
+     * have a separation of 0.
+     * Answers are kept in a SeparationCache, so repeated pairs are not searched again
+     * until the graph changes. If distance labels were built for the current version
+     * of the graph (see buildDistanceLabels), they answer without a search. Actors in
+     * different components of the graph are answered at once, without either.
      * @param a1 the name of actor 1
      * @param a2 the name of actor 2
-     * @return deg the degree of movie separation between two actors
+     * @return deg the degree of movie separation between two actors, or -1 if they
+     * are not connected in any way
      */
     public int findActorSeparation(String a1, String a2){
-        int deg = -1; // default degree of separation - actors are not connected in any way
-        boolean prev = false; // whether the preceding element in the graph is a movie 
-        if (hasActor(a1) == -1 && hasActor(a2) == -1)
-            return deg;  
-        // contains the vertices of the graph in breadth-first order, using the index
-        // of the first actor in the graph as the starting point for BFS traversal
-        ArrayIterator<String> orderGraph = graph.iteratorBFS(graph.getObjIdx(a1));
-        while (orderGraph.hasNext()){
-            String element = orderGraph.next(); // vertex element in graph which is either a movie or actor
-            if (hasMovie(element) != -1){
-                // if the element is a movie
-                if (prev == false) // and the previous element was not a movie
-                    deg++; // add a degree of separation
-                prev = true;
-            } else {
-                // otherwise if the element is an actor
-                prev = false;
-                if (hasActor(element) == hasActor(a2))
-                    return deg; // return degree if the current vertex is the second actor
+        VersionedGraph.Version<String> v = versions.current(); // same version throughout
+        int id1 = hasActor(a1);
+        int id2 = hasActor(a2);
+        if (id1 == -1 || id2 == -1)
+            return -1; // not actors
+        CSRGraph<String> frozen = v.getGraph();
+        int source = vertexOf(frozen, actorVertices, id1);
+        int target = vertexOf(frozen, actorVertices, id2);
+        if (!connected(v, source, target))
+            return -1; // not connected, known without a search
+        Integer cached = separationCache.get(id1, id2, v.getNumber());
+        if (cached != null)
+            return cached;
+        int deg = separationFromDistance(vertexDistance(frozen, labelsFor(frozen), source, target)); // -1 if not connected
+        separationCache.put(id1, id2, v.getNumber(), deg);
+        return deg;
+    }
+
+    /**
+     * Builds distance labels (a PrunedLandmarkLabels index) for the current version of
+     * the graph, so that findActorSeparation and findActorSeparations answer exactly
+     * without a search. The labels take much longer to build than one search and are
+     * not kept up to date: once the graph changes, queries search again until the labels
+     * are built again.
+     */
+    public void buildDistanceLabels(){
+        distanceLabels = new PrunedLandmarkLabels(versions.current().getGraph());
+    }
+
+    /**
+     * Saves the distance labels, which must have been built for the current version of
+     * the graph, so that they can be loaded again alongside the same data (or opened with
+     * a snapshot of it, see HollywoodSnapshot.openDistanceLabels). If the file cannot be
+     * written, a message is printed.
+     * @param fileName file that the labels are written to
+     */
+    public void saveDistanceLabels(String fileName){
+        PrunedLandmarkLabels labels = labelsFor(versions.current().getGraph());
+        if (labels == null){
+            System.out.println("No distance labels for the current graph, call buildDistanceLabels() first.");
+            return;
+        }
+        try {
+            labels.save(fileName);
+        } catch (IOException ex) {
+            System.out.println(ex);
+        }
+    }
+
+    /**
+     * Loads distance labels saved by saveDistanceLabels for the current version of the
+     * graph, which must be the same data read in the same order. If the file cannot be
+     * read or was saved for another graph, a message is printed and queries keep searching.
+     * @param fileName file that the labels are read from
+     * @return true if the labels were loaded
+     */
+    public boolean loadDistanceLabels(String fileName){
+        try {
+            distanceLabels = PrunedLandmarkLabels.open(fileName, versions.current().getGraph());
+            return true;
+        } catch (IOException ex) {
+            System.out.println(ex);
+            return false;
+        }
+    }
+
+    /**
+     * Getter for the distance labels of the current version of the graph
+     * @return the labels, or null if none were built or loaded since the graph changed
+     */
+    public PrunedLandmarkLabels getDistanceLabels(){
+        return labelsFor(versions.current().getGraph());
+    }
+
+    /**
+     * Helper for the separation methods. Returns the distance labels if they describe
+     * the given version of the graph, otherwise null.
+     */
+    private PrunedLandmarkLabels labelsFor(CSRGraph<String> frozen){
+        PrunedLandmarkLabels labels = distanceLabels;
+        return (labels != null && labels.getGraph() == frozen) ? labels : null;
+    }
+
+    /**
+     * Helper for the separation methods. Finds the number of arcs between two vertices
+     * that are in the same component, from the distance labels if there are any, or
+     * else by a bidirectional breadth-first search.
+     * @param frozen the version of the graph
+     * @param labels distance labels of that version, or null
+     * @param source the index of one vertex
+     * @param target the index of the other vertex
+     * @return the number of arcs, or -1 if there is no path
+     */
+    private int vertexDistance(CSRGraph<String> frozen, PrunedLandmarkLabels labels, int source, int target){
+        if (labels != null)
+            return labels.distance(source, target);
+        int[] path = frozen.shortestPath(source, target);
+        return (path == null) ? -1 : path.length - 1;
+    }
+
+    /**
+     * Helper for the separation methods. Tells whether two vertices are in the same
+     * component of a version of the graph, so that there may be a chain between them.
+     * @param v the version of the graph
+     * @param source the index of one vertex, -1 if there is none
+     * @param target the index of the other vertex, -1 if there is none
+     * @return true if both vertices exist and are in the same component
+     */
+    private boolean connected(VersionedGraph.Version<String> v, int source, int target){
+        return source != -1 && target != -1 && v.getComponents().connected(source, target);
+    }
+
+    /**
+     * Getter for the connected components of the current version of the graph, e.g.
+     * to tell which actors can be connected at all. They are kept up to date as
+     * listings are added. Movies and actors left without any listing by applyDelta
+     * each make a component of their own in the index (see getNumComponents).
+     * @return the component index; its vertex indices are those of the graph's current
+     * version
+     */
+    public ComponentIndex getComponentIndex(){
+        return versions.current().getComponents();
+    }
+
+    /**
+     * Returns the number of connected components of the graph: groups of actors and
+     * movies that are connected to each other but not to the rest. Movies and actors
+     * without any listing (which applyDelta keeps) are not counted, so the number is
+     * the same as after loading the catalog again.
+     * @return the number of components
+     */
+    public int getNumComponents(){
+        VersionedGraph.Version<String> v = versions.current(); // same version throughout
+        return v.getComponents().getNumComponents() - countUnlisted(v.getGraph());
+    }
+
+    /**
+     * Returns how many components of the graph there are of each size, counted in
+     * actors and movies, for planning how large a search may get. As in
+     * getNumComponents, movies and actors without any listing are left out.
+     * @return the number of components of each size, by size
+     */
+    public java.util.SortedMap<Integer, Integer> getComponentSizeCounts(){
+        VersionedGraph.Version<String> v = versions.current(); // same version throughout
+        java.util.SortedMap<Integer, Integer> counts = v.getComponents().getSizeCounts();
+        int unlisted = countUnlisted(v.getGraph()); // each is a component of size 1
+        if (unlisted > 0){
+            int left = counts.get(1) - unlisted;
+            if (left == 0)
+                counts.remove(1);
+            else counts.put(1, left);
+        }
+        return counts;
+    }
+
+    /**
+     * Helper for the component counts. Counts the vertices without any edge, which
+     * are the movies and actors whose last listing was removed.
+     * @param frozen the version of the graph
+     * @return the number of vertices of degree 0
+     */
+    private static int countUnlisted(CSRGraph<String> frozen){
+        int count = 0;
+        for (int v = 0; v < frozen.getNumVertices(); v++){
+            if (frozen.degree(v) == 0)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the degree of movie separation between two actors without a search,
+     * in time proportional to the number of landmarks, using a LandmarkOracle. The
+     * estimate is the separation along a chain through one of the oracle's landmarks
+     * (popular actors and movies), so it is never below the true separation.
+     * @param a1 the name of actor 1
+     * @param a2 the name of actor 2
+     * @return the estimated separation, or -1 if the actors are not connected or the
+     * oracle has no estimate for them
+     */
+    public int estimateActorSeparation(String a1, String a2){
+        LandmarkOracle<String> oracle = getLandmarkOracle();
+        int u = actorVertex(oracle.getGraph(), a1);
+        int v = actorVertex(oracle.getGraph(), a2);
+        if (u == -1 || v == -1)
+            return -1;
+        return separationFromDistance(oracle.estimate(u, v));
+    }
+
+    /**
+     * Getter for the landmark oracle of the current version of the graph. The oracle
+     * is built when the graph is loaded, and built again the first time it is asked
+     * for after the graph changed.
+     * @return the landmark oracle
+     */
+    public LandmarkOracle<String> getLandmarkOracle(){
+        CSRGraph<String> current = versions.current().getGraph();
+        LandmarkOracle<String> oracle = landmarks;
+        if (oracle.getGraph() != current){
+            synchronized (this){
+                if (landmarks.getGraph() != current)
+                    landmarks = new LandmarkOracle<String>(current, NUM_LANDMARKS,
+                                                           Runtime.getRuntime().availableProcessors());
+                oracle = landmarks;
             }
-        } // loop ends when there are no more vertices left
-        return -1;
+        }
+        return oracle;
+    }
+
+    /**
+     * Compares estimateActorSeparation with the exact separations of random pairs of
+     * actors, to tell how far the estimates can be trusted. Distances in the report
+     * are in arcs, two per movie of separation.
+     * @param numPairs the number of pairs to sample
+     * @return the accuracy report
+     */
+    public LandmarkOracle.Report landmarkAccuracy(int numPairs){
+        LandmarkOracle<String> oracle = getLandmarkOracle();
+        int[] sample = new int[actors.size()]; // vertices of the actors in the oracle's graph
+        int n = 0;
+        for (int id = 0; id < sample.length; id++){
+            int v = vertexOf(oracle.getGraph(), actorVertices, id);
+            if (v != -1)
+                sample[n++] = v;
+        }
+        return oracle.accuracy(java.util.Arrays.copyOf(sample, n), numPairs, 42);
+    }
+
+    /**
+     * Getter for the cache of findActorSeparation answers, e.g. to read its hit and
+     * miss counters
+     * @return the separation cache
+     */
+    public SeparationCache getSeparationCache(){
+        return separationCache;
+    }
+
+    /**
+     * Replaces the cache of findActorSeparation answers, e.g. with one of another size
+     * (a cache of size 0 turns caching off)
+     * @param cache the new cache, which must not have been used with another graph
+     */
+    public void setSeparationCache(SeparationCache cache){
+        cache.graphChanged(versions.getVersion(), true, true);
+        separationCache = cache;
+    }
+
+    /**
+     * Given two actors a1 and a2, finds a shortest chain of actors and movies which
+     * connects them, in the form: a1, movie, actor, movie, ..., a2. 
+     * @param a1 the name of actor 1
+     * @param a2 the name of actor 2
+     * @return the names of the actors and movies on the chain, which is empty if the 
+     * actors are not connected in any way
+     */
+    public ArrayList<String> findActorSeparationPath(String a1, String a2){
+        ArrayList<String> chain = new ArrayList<String>();
+        VersionedGraph.Version<String> version = versions.current(); // same version throughout
+        CSRGraph<String> frozen = version.getGraph();
+        int source = actorVertex(frozen, a1);
+        int target = actorVertex(frozen, a2);
+        int[] path = connected(version, source, target) ? frozen.shortestPath(source, target) : null;
+        if (path != null){
+            for (int v : path)
+                chain.add(frozen.getVertex(v));
+        }
+        return chain;
+    }
+
+    /**
+     * Finds the degree of movie separation for many pairs of actors at once. Pairs
+     * are grouped by their first actor so that a single traversal from that actor 
+     * answers every pair in the group, and the groups are shared among the threads 
+     * of a ForkJoinPool. All pairs are answered on the same version of the graph.
+     * If distance labels were built for that version, they answer each pair instead.
+     * @param pairs the pairs of actor names to look up, each an array {a1, a2}
+     * @param numThreads the number of threads to use (at least 1)
+     * @return the separation of each pair, in the same order as pairs (see 
+     * findActorSeparation)
+     */
+    public int[] findActorSeparations(ArrayList<String[]> pairs, int numThreads){
+        int[] result = new int[pairs.size()];
+        // positions of the pairs that share each first actor, in order of first appearance
+        LinkedHashMap<String, ArrayList<Integer>> groups = new LinkedHashMap<String, ArrayList<Integer>>();
+        for (int i = 0; i < pairs.size(); i++){
+            String a1 = pairs.get(i)[0];
+            if (!groups.containsKey(a1))
+                groups.put(a1, new ArrayList<Integer>());
+            groups.get(a1).add(i);
+        }
+        ArrayList<ArrayList<Integer>> groupList = new ArrayList<ArrayList<Integer>>(groups.values());
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, numThreads));
+        try {
+            pool.invoke(new SeparationTask(versions.current(), pairs, groupList, 0, groupList.size(), result));
+        } finally {
+            pool.shutdown();
+        }
+        return result;
+    }
+
+    /**
+     * Finds the degree of movie separation for many pairs of actors at once, using 
+     * one thread per available processor.
+     * @param pairs the pairs of actor names to look up, each an array {a1, a2}
+     * @return the separation of each pair, in the same order as pairs
+     */
+    public int[] findActorSeparations(ArrayList<String[]> pairs){
+        return findActorSeparations(pairs, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Fork/join task for findActorSeparations(). Answers the pairs in groups 
+     * [from, to) of the group list, splitting the range in half while it is large.
+     */
+    private class SeparationTask extends RecursiveAction {
+        private VersionedGraph.Version<String> version; // version of the graph the batch is answered on
+        private CSRGraph<String> frozen; // the graph of that version
+        private ArrayList<String[]> pairs; // all pairs of the batch
+        private ArrayList<ArrayList<Integer>> groups; // pair positions grouped by first actor
+        private int from, to; // range of groups handled by this task
+        private int[] result; // shared result array, each task writes its own positions
+
+        SeparationTask(VersionedGraph.Version<String> version, ArrayList<String[]> pairs, 
+                        ArrayList<ArrayList<Integer>> groups, int from, int to, int[] result){
+            this.version = version;
+            this.frozen = version.getGraph();
+            this.pairs = pairs;
+            this.groups = groups;
+            this.from = from;
+            this.to = to;
+            this.result = result;
+        }
+
+        protected void compute(){
+            if (to - from > BATCH_GROUPS_PER_TASK){
+                int mid = (from + to) / 2;
+                invokeAll(new SeparationTask(version, pairs, groups, from, mid, result),
+                          new SeparationTask(version, pairs, groups, mid, to, result));
+                return;
+            }
+            for (int g = from; g < to; g++)
+                answerGroup(groups.get(g));
+        }
+
+        /**
+         * Answers all pairs of one group, which share their first actor.
+         */
+        private void answerGroup(ArrayList<Integer> group){
+            int source = actorVertex(frozen, pairs.get(group.get(0))[0]);
+            PrunedLandmarkLabels labels = labelsFor(frozen);
+            // a single target is found faster by the bidirectional search, and
+            // the labels answer each pair without a search
+            boolean pairByPair = group.size() == 1 || labels != null;
+            int[] dist = null; // found once the first target in the source's component comes up
+            for (int i : group){
+                int target = actorVertex(frozen, pairs.get(i)[1]);
+                if (!connected(version, source, target))
+                    result[i] = -1;
+                else if (pairByPair)
+                    result[i] = separationFromDistance(vertexDistance(frozen, labels, source, target));
+                else {
+                    if (dist == null)
+                        dist = frozen.distancesBFS(source);
+                    result[i] = separationFromDistance(dist[target]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper. Converts the number of arcs between two actor vertices into their
+     * degree of movie separation.
+     * @param distance the number of arcs on a shortest path, -1 if there is none
+     * @return the degree of movie separation, or -1 if the actors are the same or
+     * not connected
+     */
+    static int separationFromDistance(int distance){
+        if (distance <= 0)
+            return -1;
+        // a path alternates actor, movie, actor, ... so it contains distance / 2 movies
+        return distance / 2 - 1;
+    }
+
+    /**
+     * Helper for the separation methods. Finds the vertex of an actor in a version
+     * of the graph.
+     * @param frozen the version of the graph
+     * @param aName the name of the actor
+     * @return the index of the actor's vertex, or -1 if the name is not an actor in
+     * that version
+     */
+    private int actorVertex(CSRGraph<String> frozen, String aName){
+        return vertexOf(frozen, actorVertices, hasActor(aName));
+    }
+
+    /**
+     * Helper for the separation methods. Finds the vertex of a movie or an actor, given
+     * its id, in a version of the graph.
+     * @param frozen the version of the graph
+     * @param vertices the vertex of each id (movieVertices or actorVertices)
+     * @param id the id, -1 if there is none
+     * @return the index of the vertex, or -1 if it is not in that version
+     */
+    private static int vertexOf(CSRGraph<String> frozen, int[] vertices, int id){
+        if (id < 0 || id >= vertices.length)
+            return -1;
+        int v = vertices[id];
+        return (v < frozen.getNumVertices()) ? v : -1; // added after that version
+    }
+
+    /**
+     * Getter for the number of the version of the graph that queries currently run
+     * on. It goes up by one each time a batch of changes to the graph is published.
+     * @return the graph version
+     */
+    public long getGraphVersion(){
+        return versions.getVersion();
     }
 
     /**
@@ -271,19 +1074,11 @@ public class HollywoodGraph
         double percent = scan.nextDouble(); // user's input
         scan.close(); // close scanner
 
-        ArrayList<String> passed1 = new ArrayList<String>(); // keeps track of which movies pass results test
-        ArrayList<String> passed2 = new ArrayList<String>(); // keeps track of which movies pass gender percent test
-        ArrayList<String> passed3 = new ArrayList<String>(); // keeps track of which movies pass both tests
+        BJJEngine.Result result = bjj.evaluate(input, percent);
+        ArrayList<String> passed1 = result.getPassedTests(); // movies which pass results test
+        ArrayList<String> passed2 = result.getPassedWomen(); // movies which pass gender percent test
+        ArrayList<String> passed3 = result.getPassed(); // movies which pass both tests
 
-        for (Movie m : movies){
-            // tests each movie in HollywoodGraph to see if it passes each part(s) of our test
-            if (m.getNumPassedTests() >= input)
-                passed1.add(m.getTitle());
-            if (testPercentOfWomen(m, percent/100))
-                passed2.add(m.getTitle());
-            if (m.getNumPassedTests() >= input && testPercentOfWomen(m, percent/100))
-                passed3.add(m.getTitle());
-        }
         System.out.println("\nThere are " + passed1.size() + " out of " + movies.size() + " movies that pass " + input + " of the tests:");
         System.out.println(passed1);
         System.out.println("\nThere are " + passed2.size() + " out of " + movies.size() + " movies with a cast of at least " + (int)(percent) + "% women:");
@@ -294,23 +1089,12 @@ public class HollywoodGraph
     }
 
     /**
-     * Helper method for our BJJ test. Given a movie and a double, checks whether 
-     * the percentage of female actors in the movie is greater than or equal to the 
-     * double value
-     * @param m the movie to be checked
-     * @param d the value to check against
-     * @return whether the movie's female cast percentage is at least the value (true) or not (false)
+     * Getter for the BJJ engine, which evaluates the BJJ test for given thresholds 
+     * without asking for input (see passBJJTest)
+     * @return the BJJ engine of this graph
      */
-    private boolean testPercentOfWomen(Movie m, double d){
-        double count = 0;
-        ArrayList<Actor> actorsInMov = m.getActors(); 
-        // loops through actors in the given movie
-        for (Actor a : actorsInMov){
-            if (a.getGender().equals("Female"))
-                count++; // gets count of female actors in movie
-        }
-        double percent = (count/actorsInMov.size());
-        return ((percent - d) > 0.00001);
+    public BJJEngine getBJJEngine(){
+        return bjj;
     }
 
     /**
@@ -0,0 +1,428 @@
+import javafoundations.*;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * A read-only copy of a loaded HollywoodGraph, stored in a binary file that is opened
+ * with FileChannel.map. Opening a snapshot does not re-read the cast and tests files:
+ * the graph's arcs and the test results are used straight from the mapped file, and
+ * only the vertex names are decoded, so the time to open does not depend on the number
+ * of edges.
+ *
+ * File layout (big-endian, every section starts at a multiple of 8 bytes):
+ *   header       magic, version, #vertices, #arcs, #tests, #genders, #string bytes
+ *   string table int[#vertices + #genders + 1] offsets, then the UTF-8 bytes of the
+ *                vertex names followed by the gender names
+ *   kinds        byte[#vertices], MOVIE and/or ACTOR flags
+ *   genders      byte[#vertices], position in the gender names (-1 for non-actors)
+ *   CSR offsets  int[#vertices + 1]
+ *   CSR targets  int[#arcs]
+ *   test results long[#vertices * words per vertex], bit i set if test i was passed
+ *
+ * A snapshot must be smaller than 2GB, the largest region FileChannel.map can map.
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class HollywoodSnapshot
+{
+    public static final int MAGIC = 0x48475350; // "HGSP"
+    public static final int VERSION = 1;
+    public static final byte MOVIE = 1; // kind flag of movie vertices
+    public static final byte ACTOR = 2; // kind flag of actor vertices
+    private static final int HEADER_BYTES = 7 * 4;
+
+    private CSRGraph<String> graph; // graph over the mapped CSR arrays
+    private HashMap<String, Integer> vertexIndex; // name -> its vertex index
+    private String[] genderNames; // distinct genders, by code
+    private ByteBuffer kinds; // kind flags, by vertex
+    private ByteBuffer genders; // gender code, by vertex
+    private LongBuffer tests; // test result bits, by vertex
+    private int numTests; // number of tests recorded per movie
+    private int testWords; // number of longs of test results per vertex
+    private int numMovies, numActors;
+    private PrunedLandmarkLabels distanceLabels; // exact distances, null if none were opened
+
+    /**
+     * Constructor used by open() once the file has been mapped
+     */
+    private HollywoodSnapshot(){
+    }
+
+    /**
+     * Writes a snapshot of a loaded HollywoodGraph to a file.
+     * @param fileName the file to write
+     * @param movies the movies of the graph
+     * @param actors the actors of the graph
+     * @param movieVertices the vertex of each movie in graph, by id
+     * @param actorVertices the vertex of each actor in graph, by id
+     * @param graph the frozen graph, with a vertex for each movie and actor
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(String fileName, ArrayList<Movie> movies, ArrayList<Actor> actors,
+                             int[] movieVertices, int[] actorVertices, CSRGraph<String> graph) throws IOException {
+        int numVertices = graph.getNumVertices();
+        byte[] kinds = new byte[numVertices];
+        byte[] genders = new byte[numVertices];
+        int numTests = 0;
+        for (Movie m : movies){
+            kinds[movieVertices[m.getId()]] |= MOVIE;
+            numTests = Math.max(numTests, m.getNumTests());
+        }
+        int words = (numTests + 63) / 64;
+        long[] tests = new long[numVertices * words];
+        for (Movie m : movies){
+            int v = movieVertices[m.getId()];
+            for (int i = 0; i < m.getNumTests(); i++){
+                if (m.passedTest(i))
+                    tests[v * words + i / 64] |= 1L << (i % 64);
+            }
+        }
+
+        java.util.Arrays.fill(genders, (byte) -1);
+        ArrayList<String> genderNames = new ArrayList<String>();
+        HashMap<String, Integer> genderCodes = new HashMap<String, Integer>();
+        for (Actor a : actors){
+            int v = actorVertices[a.getId()];
+            kinds[v] |= ACTOR;
+            if (!genderCodes.containsKey(a.getGender())){
+                genderCodes.put(a.getGender(), genderNames.size());
+                genderNames.add(a.getGender());
+            }
+            genders[v] = (byte) (int) genderCodes.get(a.getGender());
+        }
+        if (genderNames.size() > Byte.MAX_VALUE)
+            throw new IOException("Too many genders for a snapshot: " + genderNames.size());
+
+        // string table: vertex names, then gender names
+        int numStrings = numVertices + genderNames.size();
+        byte[][] strings = new byte[numStrings][];
+        int[] stringOffsets = new int[numStrings + 1];
+        for (int i = 0; i < numStrings; i++){
+            String s = (i < numVertices) ? graph.getVertex(i) : genderNames.get(i - numVertices);
+            strings[i] = s.getBytes(StandardCharsets.UTF_8);
+            stringOffsets[i + 1] = stringOffsets[i] + strings[i].length;
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(numVertices);
+            out.writeInt(graph.getNumArcs());
+            out.writeInt(numTests);
+            out.writeInt(genderNames.size());
+            out.writeInt(stringOffsets[numStrings]);
+            pad(out);
+            for (int off : stringOffsets)
+                out.writeInt(off);
+            for (byte[] b : strings)
+                out.write(b);
+            pad(out);
+            out.write(kinds);
+            pad(out);
+            out.write(genders);
+            pad(out);
+            for (int v = 0; v <= numVertices; v++)
+                out.writeInt(v < numVertices ? graph.neighborStart(v) : graph.getNumArcs());
+            pad(out);
+            for (int i = 0; i < graph.getNumArcs(); i++)
+                out.writeInt(graph.neighborAt(i));
+            pad(out);
+            for (long t : tests)
+                out.writeLong(t);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Helper for write(). Writes zeros until the output is at a multiple of 8 bytes.
+     */
+    private static void pad(DataOutputStream out) throws IOException {
+        while (out.size() % 8 != 0)
+            out.writeByte(0);
+    }
+
+    /**
+     * Helper for open(). Rounds a file position up to a multiple of 8 bytes.
+     */
+    private static int align(int position){
+        return (position + 7) & ~7;
+    }
+
+    /**
+     * Helper for open(). Returns a view of length bytes of the mapped file starting
+     * at position.
+     */
+    private static ByteBuffer section(MappedByteBuffer map, int position, int length){
+        ByteBuffer dup = map.duplicate();
+        dup.position(position);
+        dup.limit(position + length);
+        return dup.slice();
+    }
+
+    /**
+     * Opens a snapshot written by write() (or HollywoodGraph.saveSnapshot()).
+     * @param fileName the snapshot file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of this version
+     */
+    public static HollywoodSnapshot open(String fileName) throws IOException {
+        MappedByteBuffer map;
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException(fileName + " is too large to be a snapshot");
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            file.close(); // the mapping stays valid after the channel is closed
+        }
+        if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC)
+            throw new IOException(fileName + " is not a HollywoodGraph snapshot");
+        if (map.getInt(4) != VERSION)
+            throw new IOException(fileName + " has snapshot version " + map.getInt(4)
+                + ", expected " + VERSION);
+
+        HollywoodSnapshot snap = new HollywoodSnapshot();
+        int numVertices = map.getInt(8);
+        int numArcs = map.getInt(12);
+        snap.numTests = map.getInt(16);
+        int numGenders = map.getInt(20);
+        int stringBytes = map.getInt(24);
+        snap.testWords = (snap.numTests + 63) / 64;
+
+        int numStrings = numVertices + numGenders;
+        int pos = align(HEADER_BYTES);
+        IntBuffer stringOffsets = section(map, pos, (numStrings + 1) * 4).asIntBuffer();
+        pos += (numStrings + 1) * 4;
+        ByteBuffer stringData = section(map, pos, stringBytes);
+        pos = align(pos + stringBytes);
+        snap.kinds = section(map, pos, numVertices);
+        pos = align(pos + numVertices);
+        snap.genders = section(map, pos, numVertices);
+        pos = align(pos + numVertices);
+        IntBuffer offsets = section(map, pos, (numVertices + 1) * 4).asIntBuffer();
+        pos = align(pos + (numVertices + 1) * 4);
+        IntBuffer targets = section(map, pos, numArcs * 4).asIntBuffer();
+        pos = align(pos + numArcs * 4);
+        snap.tests = section(map, pos, numVertices * snap.testWords * 8).asLongBuffer();
+
+        String[] strings = new String[numStrings];
+        for (int i = 0; i < numStrings; i++){
+            int start = stringOffsets.get(i);
+            byte[] b = new byte[stringOffsets.get(i + 1) - start];
+            stringData.get(start, b);
+            strings[i] = new String(b, StandardCharsets.UTF_8);
+        }
+        snap.genderNames = new String[numGenders];
+        System.arraycopy(strings, numVertices, snap.genderNames, 0, numGenders);
+        String[] names = new String[numVertices];
+        System.arraycopy(strings, 0, names, 0, numVertices);
+        snap.graph = new CSRGraph<String>(names, offsets, targets);
+        snap.vertexIndex = indexVertices(snap.graph);
+
+        for (int v = 0; v < numVertices; v++){
+            if ((snap.kinds.get(v) & MOVIE) != 0) snap.numMovies++;
+            if ((snap.kinds.get(v) & ACTOR) != 0) snap.numActors++;
+        }
+        return snap;
+    }
+
+    /**
+     * Getter for the number of movies in the snapshot
+     * @return the number of movies
+     */
+    public int getNumMovies(){
+        return numMovies;
+    }
+
+    /**
+     * Getter for the number of actors in the snapshot
+     * @return the number of actors
+     */
+    public int getNumActors(){
+        return numActors;
+    }
+
+    /**
+     * Getter for the number of test results recorded per movie
+     * @return the number of tests
+     */
+    public int getNumTests(){
+        return numTests;
+    }
+
+    /**
+     * Getter for the read-only graph of the snapshot
+     * @return the graph
+     */
+    public CSRGraph<String> getGraph(){
+        return graph;
+    }
+
+    /**
+     * Helper. Finds the vertex of a name if it has the given kind.
+     * @return the vertex index, or -1 if there is no such vertex
+     */
+    private int vertexOf(String name, byte kind){
+        Integer v = vertexIndex.get(name);
+        if (v == null || (kinds.get(v) & kind) == 0)
+            return -1;
+        return v;
+    }
+
+    /**
+     * Helper. Maps the name of each vertex of a graph to its index, since a CSRGraph
+     * only finds a vertex by going over all of them.
+     * @return the map from names to vertex indices
+     */
+    private static HashMap<String, Integer> indexVertices(CSRGraph<String> graph){
+        HashMap<String, Integer> index = new HashMap<String, Integer>();
+        for (int v = 0; v < graph.getNumVertices(); v++)
+            index.put(graph.getVertex(v), v);
+        return index;
+    }
+
+    /**
+     * Returns whether the snapshot has an actor with the given name
+     * @param aName the name of the actor
+     * @return true if there is such an actor
+     */
+    public boolean hasActor(String aName){
+        return vertexOf(aName, ACTOR) != -1;
+    }
+
+    /**
+     * Returns whether the snapshot has a movie with the given title
+     * @param mTitle the title of the movie
+     * @return true if there is such a movie
+     */
+    public boolean hasMovie(String mTitle){
+        return vertexOf(mTitle, MOVIE) != -1;
+    }
+
+    /**
+     * Getter for the gender of an actor
+     * @param aName the name of the actor
+     * @return the actor's gender, or null if there is no such actor
+     */
+    public String getGender(String aName){
+        int v = vertexOf(aName, ACTOR);
+        return (v == -1) ? null : genderNames[genders.get(v)];
+    }
+
+    /**
+     * Returns the names of the actors in a movie
+     * @param mTitle the title of the movie
+     * @return the actors of the movie, empty if there is no such movie
+     */
+    public ArrayList<String> getActorsInMovie(String mTitle){
+        ArrayList<String> result = new ArrayList<String>();
+        int v = vertexOf(mTitle, MOVIE);
+        if (v != -1){
+            for (int i = graph.neighborStart(v); i < graph.neighborEnd(v); i++)
+                result.add(graph.getVertex(graph.neighborAt(i)));
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether a movie passed a test
+     * @param mTitle the title of the movie
+     * @param i the position of the test (in the order of the tests file)
+     * @return true if the movie passed the test, false otherwise or if there is no such movie
+     */
+    public boolean passedTest(String mTitle, int i){
+        int v = vertexOf(mTitle, MOVIE);
+        if (v == -1 || i < 0 || i >= numTests)
+            return false;
+        return (tests.get(v * testWords + i / 64) & (1L << (i % 64))) != 0;
+    }
+
+    /**
+     * Returns the number of tests a movie passed
+     * @param mTitle the title of the movie
+     * @return the number of passed tests, 0 if there is no such movie
+     */
+    public int getNumPassedTests(String mTitle){
+        int v = vertexOf(mTitle, MOVIE);
+        if (v == -1)
+            return 0;
+        int count = 0;
+        for (int w = 0; w < testWords; w++)
+            count += Long.bitCount(tests.get(v * testWords + w));
+        return count;
+    }
+
+    /**
+     * Finds the degree of movie separation between two actors, as
+     * HollywoodGraph.findActorSeparation() does
+     * @param a1 the name of actor 1
+     * @param a2 the name of actor 2
+     * @return the degree of movie separation, or -1 if they are not connected
+     */
+    public int findActorSeparation(String a1, String a2){
+        if (distanceLabels != null){
+            int v1 = vertexOf(a1, ACTOR), v2 = vertexOf(a2, ACTOR);
+            if (v1 == -1 || v2 == -1)
+                return -1;
+            return HollywoodGraph.separationFromDistance(distanceLabels.distance(v1, v2));
+        }
+        int[] path = findPath(a1, a2);
+        return (path == null) ? -1 : HollywoodGraph.separationFromDistance(path.length - 1);
+    }
+
+    /**
+     * Opens distance labels saved by HollywoodGraph.saveDistanceLabels() for the graph
+     * this snapshot was saved from, so that findActorSeparation answers without a search.
+     * The snapshot keeps the graph's vertex indices, so the labels fit it as they are.
+     * @param fileName file that the labels are read from
+     * @throws IOException if the file cannot be read or was saved for another graph
+     */
+    public void openDistanceLabels(String fileName) throws IOException {
+        distanceLabels = PrunedLandmarkLabels.open(fileName, graph);
+    }
+
+    /**
+     * Finds a shortest chain of actors and movies which connects two actors, as
+     * HollywoodGraph.findActorSeparationPath() does
+     * @param a1 the name of actor 1
+     * @param a2 the name of actor 2
+     * @return the names on the chain, empty if the actors are not connected
+     */
+    public ArrayList<String> findActorSeparationPath(String a1, String a2){
+        ArrayList<String> chain = new ArrayList<String>();
+        int[] path = findPath(a1, a2);
+        if (path != null){
+            for (int v : path)
+                chain.add(graph.getVertex(v));
+        }
+        return chain;
+    }
+
+    /**
+     * Helper for the separation methods.
+     * @return the vertices on a shortest path between the actors, or null if there is none
+     */
+    private int[] findPath(String a1, String a2){
+        int v1 = vertexOf(a1, ACTOR), v2 = vertexOf(a2, ACTOR);
+        if (v1 == -1 || v2 == -1)
+            return null;
+        return graph.shortestPath(v1, v2);
+    }
+}
@@ -1,7 +1,11 @@
 import java.util.ArrayList;
+import java.util.BitSet;
+import javafoundations.StringDictionary;
 
 /**
  * Creates a Movie object, which will be represented as a vertex in the HollywoodGraph. 
+ * The movie's title is kept as an id in a dictionary of titles shared by all the movies
+ * of a graph.
  *
  * @author Beatrix Kim
  * @author Jessica Dai
@@ -10,19 +14,35 @@ import java.util.ArrayList;
  */
 public class Movie
 {
-    private String title; // the title of the move
+    private StringDictionary titles; // titles of the movies, shared with the other movies
+    private int id; // id of the movie's title in titles
     private ArrayList<Actor> actors; // list of actors in this movie
+    private int castSize; // number of distinct actors in the actors list
+    private int[] genderCounts; // number of distinct actors of each gender, by Gender code
     private int graphIndex; // the movie's index in a HollywoodGraph
-    private ArrayList<Integer> passedTests; // keeps track of which tests are passed
+    private long passedTests; // bit i is set if test i was passed (first 64 tests)
+    private BitSet morePassedTests; // results of tests 64 and up, only created if needed
+    private int numTests; // number of test results added
 
     /**
-     * Constructor for objects of class Movie given its title
+     * Constructor for objects of class Movie whose title is already in a dictionary
+     * @param titles the dictionary of movie titles
+     * @param id the id of the movie's title in the dictionary
+     */
+    public Movie(StringDictionary titles, int id){
+        this.titles = titles;
+        this.id = id;
+        actors = new ArrayList<Actor>(); 
+        genderCounts = new int[3]; // enough for the usual genders
+    }
+
+    /**
+     * Constructor for objects of class Movie given its title, with a dictionary of its own
      * @param t the movie title
      */
     public Movie(String t){
-        title = t;
-        actors = new ArrayList<Actor>(); 
-        passedTests = new ArrayList<Integer>(); 
+        this(new StringDictionary(), 0);
+        titles.add(t);
     }
 
     /**
@@ -41,12 +61,21 @@ public class Movie
         graphIndex = ind;
     }
 
+    /**
+     * Getter for the id of the movie's title in its dictionary. Movies of the same graph
+     * have the same id only if they are the same movie.
+     * @return id
+     */
+    public int getId(){
+        return id;
+    }
+
     /**
      * Getter for the title of the movie
      * @return title the movie title
      */
     public String getTitle(){
-        return title;
+        return titles.get(id);
     }
     
     /**
@@ -55,14 +84,43 @@ public class Movie
      * @return the number of passed tests
      */
     public int getNumPassedTests(){
-        int count = 0;
-        for (Integer i : passedTests){
-            if (i == 1)
-                count++;
-        }
+        int count = Long.bitCount(passedTests);
+        if (morePassedTests != null)
+            count += morePassedTests.cardinality();
         return count;
     }
 
+    /**
+     * Returns the number of test results recorded for the movie
+     * @return the number of tests
+     */
+    public int getNumTests(){
+        return numTests;
+    }
+
+    /**
+     * Given the position of a test (in the order of the tests file), returns
+     * whether the movie passed it
+     * @param i the position of the test
+     * @return true if the movie passed the test, false otherwise
+     */
+    public boolean passedTest(int i){
+        if (i < 0 || i >= numTests)
+            throw new IndexOutOfBoundsException("Test " + i + " of " + numTests);
+        if (i < 64)
+            return (passedTests & (1L << i)) != 0;
+        return morePassedTests != null && morePassedTests.get(i - 64); // null if none of them was passed
+    }
+
+    /**
+     * Returns the results of the first 64 tests as a bitmask, where bit i is set if 
+     * test i was passed
+     * @return the bitmask of passed tests
+     */
+    public long getPassedTestMask(){
+        return passedTests;
+    }
+
     /**
      * Getter for the movie's collection of actors
      * @return actors the list of actors in the movie
@@ -76,8 +134,69 @@ public class Movie
      * @param a the actor to be added to the actor list
      */
     public void addActor(Actor a){
+        if (!actors.contains(a)){
+            // first time this actor is linked, so count them and their gender
+            castSize++;
+            byte g = a.getGenderCode();
+            if (g >= genderCounts.length)
+                genderCounts = java.util.Arrays.copyOf(genderCounts, g + 1);
+            genderCounts[g]++;
+        }
         actors.add(a);
     }
+
+    /**
+     * Given an actor, removes it once from the movie's list of actors. The cast size and
+     * gender counts only change when the last listing of the actor is removed.
+     * @param a the actor to be removed from the actor list
+     * @return true if the actor was in the list
+     */
+    public boolean removeActor(Actor a){
+        if (!actors.remove(a))
+            return false;
+        if (!actors.contains(a)){
+            castSize--;
+            genderCounts[a.getGenderCode()]--;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of distinct actors in the movie (an actor listed for several
+     * roles is counted once)
+     * @return the size of the cast
+     */
+    public int getCastSize(){
+        return castSize;
+    }
+
+    /**
+     * Given a gender, returns the number of distinct actors of that gender in the movie
+     * @param gender the gender, such as "Female"
+     * @return the number of actors of that gender
+     */
+    public int getGenderCount(String gender){
+        int g = Gender.find(gender);
+        return (g == -1) ? 0 : getGenderCount((byte) g);
+    }
+
+    /**
+     * Given a Gender code, returns the number of distinct actors of that gender in the movie
+     * @param gender the Gender code, such as Gender.FEMALE
+     * @return the number of actors of that gender
+     */
+    public int getGenderCount(byte gender){
+        return (gender < genderCounts.length) ? genderCounts[gender] : 0;
+    }
+
+    /**
+     * Returns the fraction of the movie's distinct actors who are female. This is
+     * NaN if the movie has no actors.
+     * @return the fraction (0-1) of the cast that is female
+     */
+    public double getFemaleShare(){
+        return (double) genderCounts[Gender.FEMALE] / getCastSize();
+    }
     
     /**
      * Given an Integer 0 (fail) or 1 (pass), adds it to the movie's
@@ -85,7 +204,26 @@ public class Movie
      *  @param i the integer representation of a pass or fail to add
      */
     public void addPassedTest(Integer i){
-        passedTests.add(i);
+        if (i == 1){
+            if (numTests < 64)
+                passedTests |= 1L << numTests;
+            else {
+                if (morePassedTests == null)
+                    morePassedTests = new BitSet();
+                morePassedTests.set(numTests - 64);
+            }
+        }
+        numTests++;
+    }
+
+    /**
+     * Removes all of the movie's test results, so that new ones can be added in
+     * their place
+     */
+    public void clearTests(){
+        passedTests = 0;
+        morePassedTests = null;
+        numTests = 0;
     }
 
     /**
@@ -93,7 +231,7 @@ public class Movie
      * @return String representation of movie
      */
     public String toString(){
-        String report = title + " with cast: ";
+        String report = getTitle() + " with cast: ";
         for (int i = 0; i < actors.size(); i++){
             // loops through actors list
             report += actors.get(i).getName();
@@ -115,11 +253,36 @@ public class Movie
         System.out.println("Created new movie, " + m.getTitle());
         System.out.println("Expected index: 1, index is: " + m.getGraphIndex());
         System.out.println("Actors: " + m.getActors());
+        Actor k = new Actor("Kathy Bates", "Female");
+        m.addActor(k);
+        m.addActor(k); // listed for two roles
+        System.out.println("getCastSize Expected: 3, actual: " + m.getCastSize());
+        System.out.println("getFemaleShare Expected: 0.666..., actual: " + m.getFemaleShare());
+        m.removeActor(k);
+        System.out.println("getGenderCount(Female) Expected: 2, actual: " + m.getGenderCount("Female"));
+        m.removeActor(k);
+        System.out.println("getGenderCount(Female) Expected: 1, actual: " + m.getGenderCount("Female"));
+        System.out.println("getCastSize after removing both roles Expected: 2, actual: " + m.getCastSize());
+        System.out.println("getGenderCount(MALE) Expected: 1, actual: " + m.getGenderCount(Gender.MALE));
+        System.out.println("getGenderCount(Robot) Expected: 0, actual: " + m.getGenderCount("Robot"));
         System.out.println(m);
         m.addPassedTest(0);
         m.addPassedTest(1);
         m.addPassedTest(1);
         m.addPassedTest(0);
         System.out.println("getNumpassedTest Expected: 2, actual: " + m.getNumPassedTests());
+        System.out.println("passedTest(1) Expected: true, actual: " + m.passedTest(1));
+        for (int i = 4; i < 70; i++)
+            m.addPassedTest(i % 2); // passes every odd test
+        System.out.println("getNumpassedTest Expected: 35, actual: " + m.getNumPassedTests());
+        System.out.println("passedTest(69) Expected: true, actual: " + m.passedTest(69));
+        m.clearTests();
+        m.addPassedTest(1);
+        System.out.println("after clearTests getNumTests Expected: 1, actual: " + m.getNumTests()
+            + ", getNumPassedTests Expected: 1, actual: " + m.getNumPassedTests());
+        m.clearTests();
+        for (int i = 0; i < 70; i++)
+            m.addPassedTest(0);
+        System.out.println("70 tests, all failed, passedTest(65) Expected: false, actual: " + m.passedTest(65));
     }
 }
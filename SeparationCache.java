@@ -0,0 +1,229 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Bounded cache of actor separations, kept in front of HollywoodGraph.findActorSeparation
+ * so that popular pairs are not traversed again each time they are asked for. A pair is
+ * looked up by the ids of its two actors in either order, since the graph is undirected.
+ *
+ * The cache holds at most maxSize pairs and drops the least recently used pair to make
+ * room for a new one. A pair older than maxAge is not used again. Each pair remembers the
+ * version of the graph it was found on (see HollywoodGraph.getGraphVersion) and is only
+ * used for that version. When the graph changes, graphChanged() either drops every pair
+ * or, if the change only added listings or only removed listings, moves the pairs it
+ * cannot have changed to the new version:
+ *   - adding listings only makes paths shorter, so actors who costar (separation 0) still do
+ *   - removing listings only makes paths longer, so unconnected actors (-1) stay unconnected
+ *
+ * All methods are synchronized, so the cache can be shared by the query threads.
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class SeparationCache
+{
+    private int maxSize; // most pairs kept
+    private long maxAgeNanos; // how long a pair may be used
+    private long version; // graph version the kept pairs were found on
+    private LinkedHashMap<Long, Entry> entries; // pair key -> entry, least recently used first
+    private long hits, misses, evictions;
+
+    /**
+     * A cached separation
+     */
+    private static class Entry {
+        private int separation;
+        private long created; // System.nanoTime() when it was found
+
+        Entry(int separation, long created){
+            this.separation = separation;
+            this.created = created;
+        }
+    }
+
+    /**
+     * Constructor
+     * @param maxSize the most pairs the cache keeps (0 keeps none)
+     * @param maxAgeMillis how long a pair may be used after it was found, in milliseconds
+     */
+    public SeparationCache(int maxSize, long maxAgeMillis){
+        if (maxSize < 0 || maxAgeMillis < 0)
+            throw new IllegalArgumentException("Size and age must not be negative");
+        this.maxSize = maxSize;
+        this.maxAgeNanos = maxAgeMillis * 1000000L;
+        entries = new LinkedHashMap<Long, Entry>(16, 0.75f, true); // access order, for LRU
+    }
+
+    /**
+     * Constructor with room for 100000 pairs, each used for at most 10 minutes
+     */
+    public SeparationCache(){
+        this(100000, 10 * 60 * 1000);
+    }
+
+    /**
+     * Helper. Returns the key of a pair of actor ids, the same in either order.
+     */
+    private static long key(int actor1, int actor2){
+        int low = Math.min(actor1, actor2), high = Math.max(actor1, actor2);
+        return ((long) low << 32) | (high & 0xffffffffL);
+    }
+
+    /**
+     * Looks up the separation of two actors on a version of the graph.
+     * @param actor1 the id of one actor
+     * @param actor2 the id of the other actor
+     * @param graphVersion the version of the graph the query runs on
+     * @return the cached separation, or null if there is none for that version
+     */
+    public synchronized Integer get(int actor1, int actor2, long graphVersion){
+        Entry e = (graphVersion == version) ? entries.get(key(actor1, actor2)) : null;
+        if (e != null && System.nanoTime() - e.created > maxAgeNanos){
+            entries.remove(key(actor1, actor2)); // too old
+            evictions++;
+            e = null;
+        }
+        if (e == null){
+            misses++;
+            return null;
+        }
+        hits++;
+        return e.separation;
+    }
+
+    /**
+     * Keeps the separation of two actors found on a version of the graph. It is
+     * ignored if the graph has changed since.
+     * @param actor1 the id of one actor
+     * @param actor2 the id of the other actor
+     * @param graphVersion the version of the graph the separation was found on
+     * @param separation the separation
+     */
+    public synchronized void put(int actor1, int actor2, long graphVersion, int separation){
+        if (graphVersion != version || maxSize == 0)
+            return;
+        entries.put(key(actor1, actor2), new Entry(separation, System.nanoTime()));
+        if (entries.size() > maxSize){
+            Iterator<Long> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove(); // least recently used
+            evictions++;
+        }
+    }
+
+    /**
+     * Tells the cache that the graph changed, and keeps the pairs the change cannot
+     * have affected (see the class comment).
+     * @param graphVersion the new version of the graph
+     * @param added whether the change added listings (edges)
+     * @param removed whether the change removed listings or vertices
+     */
+    public synchronized void graphChanged(long graphVersion, boolean added, boolean removed){
+        if (graphVersion == version)
+            return;
+        version = graphVersion;
+        if (added && removed)
+            clear();
+        else {
+            int unchanged = added ? 0 : -1; // the only separation that stays right
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()){
+                if (it.next().separation != unchanged){
+                    it.remove();
+                    evictions++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every pair
+     */
+    public synchronized void clear(){
+        evictions += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * Getter for the number of pairs in the cache
+     * @return the number of pairs
+     */
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    /**
+     * Getter for the number of lookups that found a pair
+     * @return the number of hits
+     */
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    /**
+     * Getter for the number of lookups that did not find a pair
+     * @return the number of misses
+     */
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+    /**
+     * Getter for the number of pairs dropped because the cache was full, they were too
+     * old or the graph changed
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions(){
+        return evictions;
+    }
+
+    /**
+     * Returns the share of lookups that found a pair
+     * @return the hit rate (0-1), 0 if there were no lookups
+     */
+    public synchronized double getHitRate(){
+        long lookups = hits + misses;
+        return (lookups == 0) ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return String representation of the cache's counters
+     */
+    public synchronized String toString(){
+        return "SeparationCache: " + entries.size() + " of " + maxSize + " pairs, " + hits + " hits, "
+            + misses + " misses, " + evictions + " evictions";
+    }
+
+    /**
+     * Testing class
+     */
+    public static void main(String[] args) throws InterruptedException {
+        SeparationCache c = new SeparationCache(2, 50);
+        System.out.println("get Expected: null, actual: " + c.get(1, 2, 0));
+        c.put(1, 2, 0, 3);
+        System.out.println("get (2, 1) Expected: 3, actual: " + c.get(2, 1, 0));
+        c.put(3, 4, 0, 0);
+        c.get(1, 2, 0); // (3, 4) is now the least recently used
+        c.put(5, 6, 0, -1);
+        System.out.println("get (3, 4) after eviction Expected: null, actual: " + c.get(3, 4, 0));
+        c.put(3, 4, 0, 0); // (1, 2) is dropped
+        c.put(7, 8, 1, 5);
+        System.out.println("put on a newer version is ignored, size Expected: 2, actual: " + c.size());
+
+        c.graphChanged(1, true, false); // added listings: only costars are kept
+        System.out.println("get (3, 4) Expected: 0, actual: " + c.get(3, 4, 1));
+        System.out.println("get (5, 6) Expected: null, actual: " + c.get(5, 6, 1));
+        System.out.println("get on the old version Expected: null, actual: " + c.get(3, 4, 0));
+        c.put(5, 6, 1, -1);
+        c.graphChanged(2, false, true); // removed listings: only unconnected pairs are kept
+        System.out.println("get (5, 6) Expected: -1, actual: " + c.get(5, 6, 2));
+        System.out.println("get (3, 4) Expected: null, actual: " + c.get(3, 4, 2));
+
+        Thread.sleep(60);
+        System.out.println("get after maxAge Expected: null, actual: " + c.get(5, 6, 2));
+        System.out.println("hits Expected: 4, actual: " + c.getHits() + ", misses Expected: 6, actual: " + c.getMisses());
+        System.out.println(c);
+    }
+}
@@ -0,0 +1,158 @@
+import javafoundations.*;
+
+/**
+ * Column-oriented store of the Bechdel-like test results of a HollywoodGraph's movies.
+ * Each named test (bechdel, peirce, landau, ...) has a Bitmap in which bit i is set if
+ * the movie at index i of the graph's movie list passed that test. Queries are built by
+ * combining these bitmaps, a 64-bit word at a time, e.g. movies which pass bechdel and
+ * ko but not waithe:
+ *   results.passing("bechdel").and(results.passing("ko")).andNot(results.passing("waithe"))
+ *
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ */
+public class TestResults
+{
+    private String[] testNames; // names of the tests, in the order of the tests file
+    private Bitmap[] passed; // movies which passed each test
+    private int numMovies;
+
+    /**
+     * Constructor for an empty store
+     * @param testNames the names of the tests, in the order of the tests file
+     * @param numMovies the number of movies (bitmap size)
+     */
+    public TestResults(String[] testNames, int numMovies){
+        this.testNames = testNames;
+        this.numMovies = numMovies;
+        passed = new Bitmap[testNames.length];
+        for (int t = 0; t < passed.length; t++)
+            passed[t] = new Bitmap(numMovies);
+    }
+
+    /**
+     * Records that a movie passed a test
+     * @param movieIndex the index of the movie in the graph's movie list
+     * @param test the position of the test
+     */
+    public void setPassed(int movieIndex, int test){
+        passed[test].set(movieIndex);
+    }
+
+    /**
+     * Records that a movie did not pass a test, replacing an earlier result
+     * @param movieIndex the index of the movie in the graph's movie list
+     * @param test the position of the test
+     */
+    public void clearPassed(int movieIndex, int test){
+        passed[test].clear(movieIndex);
+    }
+
+    /**
+     * Makes room for movies added to the end of the graph's movie list. The new
+     * movies have not passed any test.
+     * @param numMovies the new number of movies, at least the current one
+     */
+    public void addMovies(int numMovies){
+        if (numMovies < this.numMovies)
+            throw new IllegalArgumentException("Movies cannot be removed: " + numMovies + " < " + this.numMovies);
+        for (int t = 0; t < passed.length; t++)
+            passed[t] = passed[t].resize(numMovies);
+        this.numMovies = numMovies;
+    }
+
+    /**
+     * Getter for the number of tests
+     * @return the number of tests
+     */
+    public int getNumTests(){
+        return testNames.length;
+    }
+
+    /**
+     * Getter for the number of movies
+     * @return the number of movies
+     */
+    public int getNumMovies(){
+        return numMovies;
+    }
+
+    /**
+     * Getter for the name of a test
+     * @param test the position of the test
+     * @return the name of the test
+     */
+    public String getTestName(int test){
+        return testNames[test];
+    }
+
+    /**
+     * Finds the position of a test given its name
+     * @param name the name of the test
+     * @return the position of the test, or -1 if there is no test with that name
+     */
+    public int getTestIndex(String name){
+        for (int t = 0; t < testNames.length; t++){
+            if (testNames[t].equalsIgnoreCase(name))
+                return t;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the movies which passed a test. The bitmap is the store's own, and set
+     * operations on it return new bitmaps.
+     * @param name the name of the test
+     * @return the bitmap of movies which passed the test
+     * @throws IllegalArgumentException if there is no test with that name
+     */
+    public Bitmap passing(String name){
+        int t = getTestIndex(name);
+        if (t == -1)
+            throw new IllegalArgumentException("No test named " + name);
+        return passed[t];
+    }
+
+    /**
+     * Returns the movies which failed a test
+     * @param name the name of the test
+     * @return the bitmap of movies which failed the test
+     */
+    public Bitmap failing(String name){
+        return passing(name).not();
+    }
+
+    /**
+     * Returns a bitmap of all movies, to start a query from
+     * @return the bitmap with every movie
+     */
+    public Bitmap allMovies(){
+        return Bitmap.full(numMovies);
+    }
+
+    /**
+     * Returns the movies which passed at least k of the tests. The number of passed tests
+     * is added up for 64 movies at a time, with one bitmap word per binary digit of the
+     * count.
+     * @param k the minimum number of passed tests
+     * @return the bitmap of movies which passed at least k tests
+     */
+    public Bitmap atLeast(int k){
+        int digits = 32 - Integer.numberOfLeadingZeros(testNames.length); // enough for the largest count
+        int numWords = (numMovies + 63) / 64;
+        long[][] slices = new long[digits][numWords];
+        for (Bitmap b : passed){
+            for (int w = 0; w < numWords; w++){
+                long carry = b.getWord(w); // add this test's bits to every counter
+                for (int j = 0; j < digits && carry != 0; j++){
+                    long sum = slices[j][w] ^ carry;
+                    carry &= slices[j][w];
+                    slices[j][w] = sum;
+                }
+            }
+        }
+        return Bitmap.atLeast(numMovies, slices, k);
+    }
+}
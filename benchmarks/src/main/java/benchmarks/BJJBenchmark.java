@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * The BJJ test: passBJJTest (with its answers fed through System.in and its output
+ * discarded), and the engine's evaluate and count methods it is built on.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BJJBenchmark {
+    private static final byte[] ANSWERS = "7\n25\n".getBytes(StandardCharsets.US_ASCII);
+
+    @Param({"small", "nextBechdel", "generated-20000-10000"})
+    public String dataset;
+
+    @Param({"7"})
+    public int minTests;
+
+    @Param({"25"})
+    public double minPercent;
+
+    private Object graph, engine;
+    private PrintStream realOut;
+
+    @Setup
+    public void setup() {
+        graph = Hollywood.newGraph(Datasets.castFile(dataset), Datasets.testsFile(dataset));
+        engine = Hollywood.getBJJEngine(graph);
+        realOut = System.out;
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(realOut);
+    }
+
+    @Benchmark
+    public Object passBJJTest() {
+        System.setIn(new ByteArrayInputStream(ANSWERS));
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            return Hollywood.passBJJTest(graph);
+        } finally {
+            System.setOut(realOut);
+        }
+    }
+
+    @Benchmark
+    public Object evaluate() {
+        return Hollywood.evaluateBJJ(engine, minTests, minPercent);
+    }
+
+    @Benchmark
+    public int count() {
+        return Hollywood.countBJJ(engine, minTests, minPercent);
+    }
+}
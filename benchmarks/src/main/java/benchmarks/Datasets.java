@@ -0,0 +1,93 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Locates the data sets the benchmarks run on. A data set named "small" or
+ * "nextBechdel" is the pair of bundled files data/NAME_castGender.txt and
+ * data/NAME_allTests.txt. The data directory is ../data (when run from benchmarks/)
+ * or data, unless the system property data.dir names another one.
+ *
+ * A data set named generated-MOVIES-ACTORS[-EXPONENT[-SEED]], e.g. generated-1000000-400000,
+ * is written by DatasetGenerator into a temporary directory the first time it is used
+ * (40% women, exponent 1 and seed 42 unless given).
+ */
+final class Datasets {
+    private static final String GENERATED = "generated-";
+    private static File generatedDir;
+
+    private Datasets() {
+    }
+
+    static File dataDir() {
+        String dir = System.getProperty("data.dir");
+        if (dir != null)
+            return new File(dir);
+        File up = new File("../data");
+        return up.isDirectory() ? up : new File("data");
+    }
+
+    static String castFile(String name) {
+        return new File(dir(name), name + "_castGender.txt").getPath();
+    }
+
+    static String testsFile(String name) {
+        return new File(dir(name), name + "_allTests.txt").getPath();
+    }
+
+    /** The directory of a data set's files, generating them if needed. */
+    private static synchronized File dir(String name) {
+        if (!name.startsWith(GENERATED))
+            return dataDir();
+        try {
+            if (generatedDir == null) {
+                generatedDir = Files.createTempDirectory("hollywood").toFile();
+                generatedDir.deleteOnExit();
+            }
+            File cast = new File(generatedDir, name + "_castGender.txt");
+            File tests = new File(generatedDir, name + "_allTests.txt");
+            if (!cast.exists()) {
+                String[] settings = name.substring(GENERATED.length()).split("-");
+                Hollywood.generate(Integer.parseInt(settings[0]), Integer.parseInt(settings[1]), 0.4,
+                    settings.length > 2 ? Double.parseDouble(settings[2]) : 1.0,
+                    settings.length > 3 ? Long.parseLong(settings[3]) : 42,
+                    cast.getPath(), tests.getPath());
+                cast.deleteOnExit();
+                tests.deleteOnExit();
+            }
+            return generatedDir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Distinct actor names of a cast file, in file order. */
+    static List<String> actors(String castFile) throws IOException {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        List<String> lines = Files.readAllLines(new File(castFile).toPath(), StandardCharsets.UTF_8);
+        for (int i = 1; i < lines.size(); i++) {
+            String[] fields = lines.get(i).split("\",\"");
+            if (fields.length > 1)
+                names.add(fields[1]);
+        }
+        return new ArrayList<>(names);
+    }
+
+    /** Random pairs of actors, the same for every run. */
+    static String[][] actorPairs(List<String> actors, int count, long seed) {
+        Random random = new Random(seed);
+        String[][] pairs = new String[count][];
+        for (int i = 0; i < count; i++)
+            pairs[i] = new String[] {actors.get(random.nextInt(actors.size())),
+                                     actors.get(random.nextInt(actors.size()))};
+        return pairs;
+    }
+}
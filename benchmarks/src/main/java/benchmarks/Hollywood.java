@@ -0,0 +1,140 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+
+/**
+ * Access to the project's classes from the benchmarks. HollywoodGraph and the other
+ * top-level classes are in the default package, which cannot be imported from a named
+ * package (and JMH benchmarks must be in one), so they are reached through method
+ * handles. The handles are static finals, so the JIT calls through them directly.
+ */
+final class Hollywood {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+    static final Class<?> GRAPH = load("HollywoodGraph");
+    static final Class<?> BJJ = load("BJJEngine");
+    static final Class<?> GENERATOR = load("DatasetGenerator");
+    static final Class<?> CACHE = load("SeparationCache");
+
+    private static final MethodHandle NEW_GRAPH = constructor(GRAPH, String.class, String.class);
+    private static final MethodHandle NEW_GRAPH_TGF = constructor(GRAPH, String.class, String.class, String.class);
+    private static final MethodHandle SEPARATION = method(GRAPH, "findActorSeparation",
+        MethodType.methodType(int.class, String.class, String.class));
+    private static final MethodHandle ESTIMATE = method(GRAPH, "estimateActorSeparation",
+        MethodType.methodType(int.class, String.class, String.class));
+    private static final MethodHandle NEW_CACHE = constructor(CACHE, int.class, long.class);
+    private static final MethodHandle SET_CACHE = method(GRAPH, "setSeparationCache",
+        MethodType.methodType(void.class, CACHE));
+    private static final MethodHandle BUILD_LABELS = method(GRAPH, "buildDistanceLabels",
+        MethodType.methodType(void.class));
+    private static final MethodHandle PASS_BJJ = method(GRAPH, "passBJJTest",
+        MethodType.methodType(ArrayList.class));
+    private static final MethodHandle GET_BJJ = method(GRAPH, "getBJJEngine",
+        MethodType.methodType(BJJ));
+    private static final MethodHandle BJJ_EVALUATE = method(BJJ, "evaluate",
+        MethodType.methodType(load("BJJEngine$Result"), int.class, double.class));
+    private static final MethodHandle BJJ_COUNT = method(BJJ, "count",
+        MethodType.methodType(int.class, int.class, double.class));
+    private static final MethodHandle NEW_GENERATOR = constructor(GENERATOR, int.class, int.class,
+        double.class, double.class, long.class);
+    private static final MethodHandle GENERATE = method(GENERATOR, "write",
+        MethodType.methodType(void.class, String.class, String.class));
+
+    private Hollywood() {
+    }
+
+    static Object newGraph(String castFile, String testsFile) {
+        return call(() -> NEW_GRAPH.invoke(castFile, testsFile));
+    }
+
+    static Object newGraph(String castFile, String testsFile, String tgfFile) {
+        return call(() -> NEW_GRAPH_TGF.invoke(castFile, testsFile, tgfFile));
+    }
+
+    static int findActorSeparation(Object graph, String a1, String a2) {
+        return (Integer) call(() -> SEPARATION.invoke(graph, a1, a2));
+    }
+
+    static int estimateActorSeparation(Object graph, String a1, String a2) {
+        return (Integer) call(() -> ESTIMATE.invoke(graph, a1, a2));
+    }
+
+    static void setSeparationCache(Object graph, int maxSize, long maxAgeMillis) {
+        call(() -> {
+            SET_CACHE.invoke(graph, NEW_CACHE.invoke(maxSize, maxAgeMillis));
+            return null;
+        });
+    }
+
+    static void buildDistanceLabels(Object graph) {
+        call(() -> {
+            BUILD_LABELS.invoke(graph);
+            return null;
+        });
+    }
+
+    static Object passBJJTest(Object graph) {
+        return call(() -> PASS_BJJ.invoke(graph));
+    }
+
+    static Object getBJJEngine(Object graph) {
+        return call(() -> GET_BJJ.invoke(graph));
+    }
+
+    static Object evaluateBJJ(Object engine, int minTests, double minPercent) {
+        return call(() -> BJJ_EVALUATE.invoke(engine, minTests, minPercent));
+    }
+
+    static int countBJJ(Object engine, int minTests, double minPercent) {
+        return (Integer) call(() -> BJJ_COUNT.invoke(engine, minTests, minPercent));
+    }
+
+    static void generate(int numMovies, int numActors, double femaleRatio, double exponent, long seed,
+                         String castFile, String testsFile) {
+        call(() -> {
+            Object generator = NEW_GENERATOR.invoke(numMovies, numActors, femaleRatio, exponent, seed);
+            GENERATE.invoke(generator, castFile, testsFile);
+            return null;
+        });
+    }
+
+    private interface Call {
+        Object run() throws Throwable;
+    }
+
+    private static Object call(Call c) {
+        try {
+            return c.run();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Project class " + name + " is not on the class path", e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> c, Class<?>... params) {
+        try {
+            return LOOKUP.findConstructor(c, MethodType.methodType(void.class, params));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle method(Class<?> c, String name, MethodType type) {
+        try {
+            return LOOKUP.findVirtual(c, name, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
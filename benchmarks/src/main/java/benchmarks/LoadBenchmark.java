@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javafoundations.AdjListGraph;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Loading a HollywoodGraph from its cast and tests files (readData, readTests and
+ * building the graph), and reading a saved graph back with AdjListGraphFromFile.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    @Param({"small", "nextBechdel", "generated-20000-10000"})
+    public String dataset;
+
+    private String castFile, testsFile, tgfFile;
+
+    @Setup
+    public void setup() throws IOException {
+        castFile = Datasets.castFile(dataset);
+        testsFile = Datasets.testsFile(dataset);
+        File tgf = File.createTempFile("hollywood", ".tgf");
+        tgf.deleteOnExit();
+        tgfFile = tgf.getPath();
+        Hollywood.newGraph(castFile, testsFile, tgfFile); // writes the tgf file
+    }
+
+    @Benchmark
+    public Object loadGraph() {
+        return Hollywood.newGraph(castFile, testsFile);
+    }
+
+    @Benchmark
+    public Object adjListGraphFromFile() {
+        return AdjListGraph.AdjListGraphFromFile(tgfFile);
+    }
+}
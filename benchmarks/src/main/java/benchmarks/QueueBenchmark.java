@@ -0,0 +1,100 @@
+package benchmarks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafoundations.ConcurrentArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Throughput of ConcurrentArrayQueue against the java.util.concurrent queues, with
+ * producers and consumers running at the same time. Each producer thread offers and
+ * each consumer thread polls, without blocking; a failed offer or poll (full or empty
+ * queue) counts as an operation too, as it would for a worker that moves on. Use -tg
+ * to change the number of producer and consumer threads, e.g. -tg 4,4.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Group)
+public class QueueBenchmark {
+    private static final Integer ELEMENT = 42;
+
+    @Param({"ConcurrentArrayQueue", "ArrayBlockingQueue", "ConcurrentLinkedQueue"})
+    public String queue;
+
+    @Param({"1024"})
+    public int capacity;
+
+    /** The two operations the benchmark needs, for any of the queues. */
+    private interface OfferPoll {
+        boolean offer(Integer element);
+
+        Integer poll();
+    }
+
+    private OfferPoll q;
+
+    @Setup
+    public void setup() {
+        switch (queue) {
+            case "ConcurrentArrayQueue": {
+                ConcurrentArrayQueue<Integer> c = new ConcurrentArrayQueue<Integer>(capacity);
+                q = new OfferPoll() {
+                    public boolean offer(Integer e) { return c.offer(e); }
+                    public Integer poll() { return c.poll(); }
+                };
+                break;
+            }
+            case "ArrayBlockingQueue": {
+                ArrayBlockingQueue<Integer> a = new ArrayBlockingQueue<Integer>(capacity);
+                q = new OfferPoll() {
+                    public boolean offer(Integer e) { return a.offer(e); }
+                    public Integer poll() { return a.poll(); }
+                };
+                break;
+            }
+            case "ConcurrentLinkedQueue": {
+                // unbounded (and size() walks the list), so it is bounded with a counter
+                ConcurrentLinkedQueue<Integer> l = new ConcurrentLinkedQueue<Integer>();
+                AtomicInteger count = new AtomicInteger();
+                q = new OfferPoll() {
+                    public boolean offer(Integer e) {
+                        if (count.incrementAndGet() > capacity) {
+                            count.decrementAndGet();
+                            return false;
+                        }
+                        return l.offer(e);
+                    }
+                    public Integer poll() {
+                        Integer e = l.poll();
+                        if (e != null)
+                            count.decrementAndGet();
+                        return e;
+                    }
+                };
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown queue " + queue);
+        }
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(2)
+    public boolean offer() {
+        return q.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("mpmc")
+    @GroupThreads(2)
+    public Integer poll() {
+        return q.poll();
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javafoundations.AdjListGraph;
+import javafoundations.ArrayIterator;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Breadth-first traversal of the whole graph (iteratorBFS) and actor separation
+ * queries (findActorSeparation) between random pairs of actors, searched every time
+ * or answered from the separation cache once each pair has been asked for, or
+ * from distance labels, and estimated by the landmark oracle (estimateActorSeparation).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TraversalBenchmark {
+    private static final int NUM_PAIRS = 1024;
+
+    @Param({"small", "nextBechdel", "generated-20000-10000"})
+    public String dataset;
+
+    private Object graph; // separation cache turned off
+    private Object cachedGraph; // separation cache with room for every pair
+    private Object labeledGraph; // separation cache turned off, distance labels built
+    private AdjListGraph<String> adjList;
+    private String[][] pairs;
+    private int next;
+
+    @Setup
+    public void setup() throws IOException {
+        String castFile = Datasets.castFile(dataset);
+        File tgf = File.createTempFile("hollywood", ".tgf");
+        tgf.deleteOnExit();
+        graph = Hollywood.newGraph(castFile, Datasets.testsFile(dataset), tgf.getPath());
+        Hollywood.setSeparationCache(graph, 0, 0);
+        cachedGraph = Hollywood.newGraph(castFile, Datasets.testsFile(dataset));
+        Hollywood.setSeparationCache(cachedGraph, NUM_PAIRS, Long.MAX_VALUE / 1000000);
+        labeledGraph = Hollywood.newGraph(castFile, Datasets.testsFile(dataset));
+        Hollywood.setSeparationCache(labeledGraph, 0, 0);
+        Hollywood.buildDistanceLabels(labeledGraph);
+        adjList = AdjListGraph.AdjListGraphFromFile(tgf.getPath());
+        List<String> actors = Datasets.actors(castFile);
+        pairs = Datasets.actorPairs(actors, NUM_PAIRS, 42);
+    }
+
+    @Benchmark
+    public ArrayIterator<String> iteratorBFS() {
+        return adjList.iteratorBFS(0);
+    }
+
+    @Benchmark
+    public int findActorSeparation() {
+        String[] pair = pairs[next++ & (NUM_PAIRS - 1)];
+        return Hollywood.findActorSeparation(graph, pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public int findActorSeparationCached() {
+        String[] pair = pairs[next++ & (NUM_PAIRS - 1)];
+        return Hollywood.findActorSeparation(cachedGraph, pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public int findActorSeparationLabeled() {
+        String[] pair = pairs[next++ & (NUM_PAIRS - 1)];
+        return Hollywood.findActorSeparation(labeledGraph, pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public int estimateActorSeparation() {
+        String[] pair = pairs[next++ & (NUM_PAIRS - 1)];
+        return Hollywood.estimateActorSeparation(graph, pair[0], pair[1]);
+    }
+}
@@ -1,5 +1,6 @@
 package javafoundations;
 
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Vector;
@@ -25,6 +26,8 @@ import java.io.IOException;
  * AdjListGraphFromFile (trim the token and scan next line...see 
  * comment in method). We also added two methods, iteratorBFS() and 
  * getObjIdx(). We consulted the class slides for help with BFS. 
+ * Vertex lookups by value go through a HashMap from vertex to index
+ * (kept in step with the vertices vector) instead of Vector.indexOf.
  * 
  * KNOWN FEATURES/BUGS:
  * It handles unweighted graphs only, but it can be extended.
@@ -35,6 +38,7 @@ public class AdjListGraph<T> implements Graph<T>{
     private final int NOT_FOUND = -1;
     private Vector<LinkedList<T>> arcs;   // adjacency matrices of arcs
     private Vector<T> vertices;   // values of vertices
+    private HashMap<T, Integer> vertexIndex; // value of vertex -> its index in vertices
 
     /******************************************************************
      * Constructor. Creates an empty graph.
@@ -42,6 +46,7 @@ public class AdjListGraph<T> implements Graph<T>{
     public AdjListGraph() {
         this.arcs = new Vector<LinkedList<T>>();
         this.vertices = new Vector<T>();
+        this.vertexIndex = new HashMap<T, Integer>();
     }
 
     /*****************************************************************
@@ -79,20 +84,34 @@ public class AdjListGraph<T> implements Graph<T>{
      * search traversal and returns the iterator. Assumes that startIndex is a 
      * valid index in the graph——which it always will be when called in our
      * HollywoodGraph method, findActorSeparation().
+     * Only the adjacency list of each dequeued vertex is walked, so the
+     * traversal takes O(V+E) time. Neighbors are visited in the order their
+     * arcs were added.
      * @param startIndex the index in the graph to start BFS from
      * @return iter the iterator containing vertices in breadth-first order
      */
     public ArrayIterator<T> iteratorBFS(int startIndex){
+        return iteratorBFS(startIndex, NOT_FOUND);
+    }
+
+    /**
+     * Targeted version of iteratorBFS(). Performs a breadth-first search
+     * traversal from startIndex that stops as soon as the vertex at goalIndex
+     * is reached, so the iterator ends with the goal vertex. If the goal is
+     * not reachable (or is -1), the whole component of the start is returned.
+     * @param startIndex the index in the graph to start BFS from
+     * @param goalIndex the index of the vertex to stop at
+     * @return iter the iterator containing vertices in breadth-first order
+     */
+    public ArrayIterator<T> iteratorBFS(int startIndex, int goalIndex){
         int currentVertex; // the current vertex being visited
-        // keeps track of where traversal currently is
-        LinkedQueue<Integer> traversalQueue = new LinkedQueue<Integer>(); 
+        // keeps track of where traversal currently is; each vertex is enqueued at most
+        // once, so the queue never grows and enqueueing allocates nothing
+        IntRingBuffer traversalQueue = new IntRingBuffer(getNumVertices());
         ArrayIterator<T> iter = new ArrayIterator<T>(); // keep track of result
-        // keeps track of which vertices have already been visited
+        // keeps track of which vertices have already been visited (all false to start)
         boolean[] visited = new boolean[getNumVertices()]; 
-        
-        for (int vertexIndex = 0; vertexIndex < getNumVertices(); vertexIndex++){
-            visited[vertexIndex] = false; // initialization, sets all vertices as unvisited 
-        }
+
         traversalQueue.enqueue(startIndex); // add starting index to traversalQueue 
         visited[startIndex] = true; // mark as visited
         
@@ -100,16 +119,16 @@ public class AdjListGraph<T> implements Graph<T>{
         while (!traversalQueue.isEmpty()){
             currentVertex = traversalQueue.dequeue(); // dequeue first element in queue
             iter.add(vertices.get(currentVertex)); // add it to the iterator
-            for (int vertexIndex = 0; vertexIndex < getNumVertices(); vertexIndex++){
+            if (currentVertex == goalIndex)
+                break; // reached the goal, no need to look further
+            for (T neighbor : arcs.get(currentVertex)){
                 // for each vertex adjacent to currentVertex... 
-                T v1 = vertices.get(vertexIndex);
-                T v2 = vertices.get(currentVertex);
-                if (isArc(v1, v2) && !visited[vertexIndex]){
+                int vertexIndex = indexOf(neighbor);
+                if (!visited[vertexIndex]){
                     // ...which is marked as unvisited... 
                     traversalQueue.enqueue(vertexIndex); // add into the queue
                     visited[vertexIndex] = true; // and mark as visited
                 }
-                // repeat the loop until there are no more new vertices
             }
         }
         return iter;
@@ -122,7 +141,36 @@ public class AdjListGraph<T> implements Graph<T>{
      * @return the index of the given object
      */
     public int getObjIdx(T object){
-        return vertices.indexOf(object);
+        return indexOf(object);
+    }
+
+    /**
+     * Helper. Finds the index of a vertex using the vertex index map.
+     * @param vertex the vertex to look for
+     * @return the index of the vertex, or -1 if it is not in the graph
+     */
+    private int indexOf(T vertex){
+        Integer index = vertexIndex.get(vertex);
+        return (index == null) ? NOT_FOUND : index;
+    }
+
+    /**
+     * Given an index, returns the vertex stored at that index
+     * @param index the index of the vertex
+     * @return the vertex at the given index
+     */
+    public T getVertex(int index){
+        return vertices.get(index);
+    }
+
+    /**
+     * Given an index, returns the list of vertices adjacent to the vertex
+     * at that index. Used by CSRGraph when freezing this graph.
+     * @param index the index of the vertex
+     * @return the list of vertices the vertex has arcs to
+     */
+    LinkedList<T> getArcs(int index){
+        return arcs.get(index);
     }
     
     /**** END OF OUR NEWLY ADDED METHODS. THE FOLLOWING WERE GIVEN TO US: ****/
@@ -158,7 +206,7 @@ public class AdjListGraph<T> implements Graph<T>{
      ******************************************************************/
     public boolean isArc (T vertex1, T vertex2){
         try {
-            int index = vertices.indexOf(vertex1);
+            int index = indexOf(vertex1);
             LinkedList<T> l = arcs.get(index);
             return (l.indexOf(vertex2) != -1);
         } catch (ArrayIndexOutOfBoundsException e) {
@@ -180,8 +228,9 @@ public class AdjListGraph<T> implements Graph<T>{
     //    if necessary.  If the vertex already exists, it does not add it.
     //    ******************************************************************/
     public void addVertex (T vertex) {
-        if (vertices.indexOf(vertex) == NOT_FOUND) { //the vertex is not already there
+        if (indexOf(vertex) == NOT_FOUND) { //the vertex is not already there
             // add it to the vertices vector
+            vertexIndex.put(vertex, vertices.size());
             vertices.add(vertex);
 
             //indicate that the new vertex has no arcs to other vertices yet
@@ -194,8 +243,9 @@ public class AdjListGraph<T> implements Graph<T>{
      * Uses equals() for testing equality
      ******************************************************************/
     public void removeVertex (T vertex) {
-        int index = vertices.indexOf(vertex);
-        this.removeVertex(index);
+        int index = indexOf(vertex);
+        if (index != NOT_FOUND)
+            this.removeVertex(index);
     }
 
     /******************************************************************
@@ -205,14 +255,14 @@ public class AdjListGraph<T> implements Graph<T>{
     private void removeVertex (int index) {
         T vertex = vertices.get(index);
         vertices.remove(index); //remove vertex from vertices vector
+        vertexIndex.remove(vertex);
+        for (int i = index; i < vertices.size(); i++)
+            vertexIndex.put(vertices.get(i), i); // later vertices moved down by one
         arcs.remove(index); //remove its list of adjacent vertices vector
-        //remove it from the other lists, wherever it was found
-        for (int i = 0; i < arcs.size(); i++) {
-            for (T otherVertex : arcs.get(i)) {
-                if (otherVertex.equals(vertex))
-                    arcs.get(i).remove(vertex);
-            }
-        }
+        //remove it from the other lists, wherever it was found (removing while
+        //looping over a list with for-each threw a ConcurrentModificationException)
+        for (int i = 0; i < arcs.size(); i++)
+            arcs.get(i).removeIf(otherVertex -> otherVertex.equals(vertex));
     }
 
     /******************************************************************
@@ -232,8 +282,8 @@ public class AdjListGraph<T> implements Graph<T>{
      * If the vertices exist, else does not change the graph.
      ******************************************************************/
     public void addArc (T source, T destination){
-        int sourceIndex = vertices.indexOf(source);
-        int destinationIndex = vertices.indexOf(destination);
+        int sourceIndex = indexOf(source);
+        int destinationIndex = indexOf(destination);
 
         //if source and destination exist, add the arc. do nothing otherwise
         if ((sourceIndex != -1) && (destinationIndex != -1)){
@@ -267,9 +317,10 @@ public class AdjListGraph<T> implements Graph<T>{
      * if the vertices exist, else does not change the graph.
      ******************************************************************/
     public void removeArc (T vertex1, T vertex2) {
-        int index1 = vertices.indexOf(vertex1);
-        int index2 = vertices.indexOf(vertex2);
-        removeArc (index1, index2);
+        int index1 = indexOf(vertex1);
+        int index2 = indexOf(vertex2);
+        if ((index1 != NOT_FOUND) && (index2 != NOT_FOUND))
+            removeArc (index1, index2);
     }
 
     /******************************************************************
@@ -317,7 +368,7 @@ public class AdjListGraph<T> implements Graph<T>{
             //write arcs by iterating through arcs vector
             for (int i = 0; i < arcs.size(); i++){ //for each linked list in arcs
                 for (T vertex :arcs.get(i)) {
-                    int index2 = vertices.indexOf(vertex);
+                    int index2 = indexOf(vertex);
                     writer.print((i+1) + " " + (index2+1));
                     writer.println("");
                 }
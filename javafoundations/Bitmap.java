@@ -0,0 +1,229 @@
+package javafoundations;
+
+import java.util.Arrays;
+
+/********************************************************************
+ * Bitmap.java
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ *
+ * A fixed-size set of the integers 0 to size-1, stored as one bit per
+ * integer in an array of longs. The set operations (and, or, andNot,
+ * not) work on a whole 64-bit word at a time and return new bitmaps,
+ * so bitmaps can be combined without changing the ones they came from.
+ *
+ * KNOWN FEATURES/BUGS:
+ * Both bitmaps of a set operation must have the same size.
+ ********************************************************************/
+
+public class Bitmap {
+    private long[] words; // bit i of the set is bit (i % 64) of words[i / 64]
+    private int size; // number of bits
+
+    /******************************************************************
+     * Constructor. Creates an empty bitmap of the given size.
+     ******************************************************************/
+    public Bitmap(int size) {
+        this.size = size;
+        words = new long[(size + 63) / 64];
+    }
+
+    /******************************************************************
+     * Helper constructor for the set operations.
+     ******************************************************************/
+    private Bitmap(int size, long[] words) {
+        this.size = size;
+        this.words = words;
+    }
+
+    /******************************************************************
+     * Creates a bitmap of the given size with every bit set.
+     ******************************************************************/
+    public static Bitmap full(int size) {
+        return new Bitmap(size).not();
+    }
+
+    /******************************************************************
+     * Creates a bitmap from bit-sliced counters: bit i of the result is
+     * set if the number whose binary digit j is bit i of slices[j] is
+     * at least k. Used to answer "at least k of these sets" queries a
+     * word at a time.
+     ******************************************************************/
+    public static Bitmap atLeast(int size, long[][] slices, int k) {
+        long[] result = new long[(size + 63) / 64];
+        if (k <= 0)
+            return full(size);
+        if (k >= (1L << slices.length))
+            return new Bitmap(size, result); // no counter can be that large
+        for (int w = 0; w < result.length; w++){
+            long greater = 0, equal = ~0L; // compare the counters with k, high digit first
+            for (int j = slices.length - 1; j >= 0; j--){
+                if ((k & (1 << j)) != 0)
+                    equal &= slices[j][w];
+                else {
+                    greater |= equal & slices[j][w];
+                    equal &= ~slices[j][w];
+                }
+            }
+            result[w] = greater | equal;
+        }
+        return new Bitmap(size, result).trim();
+    }
+
+    /******************************************************************
+     * Helper. Clears the unused bits past size in the last word.
+     ******************************************************************/
+    private Bitmap trim() {
+        if (size % 64 != 0)
+            words[words.length - 1] &= (1L << (size % 64)) - 1;
+        return this;
+    }
+
+    /******************************************************************
+     * Returns the number of bits in the bitmap.
+     ******************************************************************/
+    public int size() {
+        return size;
+    }
+
+    /******************************************************************
+     * Adds i to the set.
+     ******************************************************************/
+    public void set(int i) {
+        words[i >> 6] |= 1L << i;
+    }
+
+    /******************************************************************
+     * Removes i from the set.
+     ******************************************************************/
+    public void clear(int i) {
+        words[i >> 6] &= ~(1L << i);
+    }
+
+    /******************************************************************
+     * Returns a copy of this bitmap with a new size. Bits past the new
+     * size are dropped, and the bits added are not set.
+     ******************************************************************/
+    public Bitmap resize(int newSize) {
+        return new Bitmap(newSize, Arrays.copyOf(words, (newSize + 63) / 64)).trim();
+    }
+
+    /******************************************************************
+     * Returns true iff i is in the set.
+     ******************************************************************/
+    public boolean get(int i) {
+        return (words[i >> 6] & (1L << i)) != 0;
+    }
+
+    /******************************************************************
+     * Returns the w-th word of the bitmap (bits 64w to 64w+63).
+     ******************************************************************/
+    public long getWord(int w) {
+        return words[w];
+    }
+
+    /******************************************************************
+     * Returns the number of words of the bitmap.
+     ******************************************************************/
+    public int getNumWords() {
+        return words.length;
+    }
+
+    /******************************************************************
+     * Returns the intersection of this bitmap and another.
+     ******************************************************************/
+    public Bitmap and(Bitmap other) {
+        long[] result = new long[words.length];
+        for (int w = 0; w < words.length; w++)
+            result[w] = words[w] & other.words[w];
+        return new Bitmap(size, result);
+    }
+
+    /******************************************************************
+     * Returns the union of this bitmap and another.
+     ******************************************************************/
+    public Bitmap or(Bitmap other) {
+        long[] result = new long[words.length];
+        for (int w = 0; w < words.length; w++)
+            result[w] = words[w] | other.words[w];
+        return new Bitmap(size, result);
+    }
+
+    /******************************************************************
+     * Returns the bits of this bitmap which are not in another.
+     ******************************************************************/
+    public Bitmap andNot(Bitmap other) {
+        long[] result = new long[words.length];
+        for (int w = 0; w < words.length; w++)
+            result[w] = words[w] & ~other.words[w];
+        return new Bitmap(size, result);
+    }
+
+    /******************************************************************
+     * Returns the complement of this bitmap.
+     ******************************************************************/
+    public Bitmap not() {
+        long[] result = new long[words.length];
+        for (int w = 0; w < words.length; w++)
+            result[w] = ~words[w];
+        return new Bitmap(size, result).trim();
+    }
+
+    /******************************************************************
+     * Returns the number of bits that are set.
+     ******************************************************************/
+    public int cardinality() {
+        int count = 0;
+        for (long word : words)
+            count += Long.bitCount(word);
+        return count;
+    }
+
+    /******************************************************************
+     * Returns the first set bit at or after from, or -1 if there is
+     * none. Loop over the set with:
+     * for (int i = b.nextSetBit(0); i >= 0; i = b.nextSetBit(i + 1))
+     ******************************************************************/
+    public int nextSetBit(int from) {
+        if (from >= size) return -1;
+        int w = from >> 6;
+        long word = words[w] & (~0L << from); // ignore bits before from
+        while (word == 0){
+            if (++w == words.length)
+                return -1;
+            word = words[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /******************************************************************
+     * Returns true iff the two bitmaps have the same size and bits.
+     ******************************************************************/
+    public boolean equals(Object o) {
+        if (!(o instanceof Bitmap)) return false;
+        Bitmap other = (Bitmap) o;
+        return size == other.size && Arrays.equals(words, other.words);
+    }
+
+    /******************************************************************
+     * Returns a hash code consistent with equals().
+     ******************************************************************/
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(words);
+    }
+
+    /******************************************************************
+     * Returns a string representation of the set, e.g. {0, 3, 7}.
+     ******************************************************************/
+    public String toString() {
+        String result = "{";
+        for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)){
+            if (result.length() > 1)
+                result += ", ";
+            result += i;
+        }
+        return result + "}";
+    }
+}
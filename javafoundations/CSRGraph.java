@@ -0,0 +1,543 @@
+package javafoundations;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.io.PrintWriter;
+import java.io.File;
+import java.io.IOException;
+
+/********************************************************************
+ * CSRGraph.java
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ *
+ * Read-only implementation of the Graph.java interface that stores
+ * arcs in compressed sparse row (CSR) form. The neighbors of the
+ * vertex at index v are targets[offsets[v]] up to (but not including)
+ * targets[offsets[v+1]], kept in increasing order so that isArc()
+ * can use a binary search.
+ *
+ * A CSRGraph is built by freezing an AdjListGraph once it is fully
+ * loaded. Vertices keep the same indices they had in that graph.
+ * There is no map from vertex values back to indices, since a graph
+ * of names would repeat one that its user already keeps: getObjIdx
+ * and the methods that take vertex values search the vertices.
+ * The two arrays are held as IntBuffers so that a CSRGraph can also
+ * be opened directly over arrays stored in a memory-mapped file.
+ *
+ * KNOWN FEATURES/BUGS:
+ * It handles unweighted graphs only. Repeated arcs between the same
+ * two vertices are stored once.
+ * Methods that change the graph throw UnsupportedOperationException.
+ ********************************************************************/
+
+public class CSRGraph<T> implements Graph<T>{
+    private final int NOT_FOUND = -1;
+    private T[] vertices; // values of vertices, by index
+    private IntBuffer offsets; // start of each vertex's neighbors in targets
+    private IntBuffer targets; // neighbor indices of all vertices, row by row
+
+    /******************************************************************
+     * Constructor. Creates a frozen copy of the given graph.
+     ******************************************************************/
+    public CSRGraph(AdjListGraph<T> g) {
+        int n = g.getNumVertices();
+        vertices = (T[]) (new Object[n]);
+        for (int i = 0; i < n; i++)
+            vertices[i] = g.getVertex(i);
+
+        int[] starts = new int[n + 1];
+        int[] arcs = new int[g.getNumArcs()]; // upper bound, trimmed below
+        int count = 0; // number of arcs written so far
+        for (int i = 0; i < n; i++){
+            starts[i] = count;
+            count = copyRow(g, i, arcs, count);
+        }
+        starts[n] = count;
+        if (count < arcs.length)
+            arcs = Arrays.copyOf(arcs, count);
+        offsets = IntBuffer.wrap(starts);
+        targets = IntBuffer.wrap(arcs);
+    }
+
+    /******************************************************************
+     * Constructor. Creates a frozen copy of g from an earlier frozen
+     * copy of it, base. Since base was made, g may only have gained
+     * vertices (at the end) and changed the arcs of the vertices whose
+     * indices are in changed. Only the neighbors of those vertices and
+     * of the new ones are read from g; every other row is copied from
+     * base in bulk, so the work done on g is proportional to the change.
+     ******************************************************************/
+    public CSRGraph(CSRGraph<T> base, AdjListGraph<T> g, int[] changed) {
+        int n = g.getNumVertices();
+        int old = base.vertices.length;
+        vertices = Arrays.copyOf(base.vertices, n);
+        for (int i = old; i < n; i++)
+            vertices[i] = g.getVertex(i);
+
+        boolean[] reread = new boolean[n]; // rows to read from g
+        int size = base.targets.limit(); // upper bound on the number of arcs
+        for (int v : changed){
+            if (v < old && !reread[v]){ // new vertices are counted below
+                reread[v] = true;
+                size += g.getArcs(v).size() - base.degree(v);
+            }
+        }
+        for (int v = old; v < n; v++){
+            reread[v] = true;
+            size += g.getArcs(v).size();
+        }
+
+        int[] starts = new int[n + 1];
+        int[] arcs = new int[size];
+        int count = 0; // number of arcs written so far
+        int v = 0;
+        while (v < n){
+            if (reread[v]){
+                starts[v] = count;
+                count = copyRow(g, v, arcs, count);
+                v++;
+                continue;
+            }
+            int end = v + 1; // copy the run of unchanged rows [v, end) from base
+            while (end < n && !reread[end])
+                end++;
+            int from = base.offsets.get(v);
+            int to = base.offsets.get(end);
+            base.targets.get(from, arcs, count, to - from);
+            for (int u = v; u < end; u++)
+                starts[u] = base.offsets.get(u) - from + count;
+            count += to - from;
+            v = end;
+        }
+        starts[n] = count;
+        if (count < arcs.length)
+            arcs = Arrays.copyOf(arcs, count);
+        offsets = IntBuffer.wrap(starts);
+        targets = IntBuffer.wrap(arcs);
+    }
+
+    /******************************************************************
+     * Helper. Writes the sorted, distinct neighbors of vertex v of g to
+     * arcs starting at position count, and returns the position just
+     * past them.
+     ******************************************************************/
+    private int copyRow(AdjListGraph<T> g, int v, int[] arcs, int count) {
+        int start = count;
+        for (T neighbor : g.getArcs(v))
+            arcs[count++] = g.getObjIdx(neighbor);
+        Arrays.sort(arcs, start, count);
+        return removeRepeats(arcs, start, count);
+    }
+
+    /******************************************************************
+     * Constructor. Creates a graph over existing CSR arrays without
+     * copying them. offsets must hold one more entry than there are
+     * vertices, and each vertex's range of targets must be sorted.
+     ******************************************************************/
+    public CSRGraph(T[] vertices, IntBuffer offsets, IntBuffer targets) {
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /******************************************************************
+     * Helper. Removes repeated values from the sorted range
+     * arcs[from..to) and returns the new end of the range.
+     ******************************************************************/
+    private static int removeRepeats(int[] arcs, int from, int to) {
+        if (from == to) return to;
+        int last = from; // position of the last distinct value kept
+        for (int i = from + 1; i < to; i++){
+            if (arcs[i] != arcs[last])
+                arcs[++last] = arcs[i];
+        }
+        return last + 1;
+    }
+
+    /******************************************************************
+     * Returns the value of the vertex at the given index.
+     ******************************************************************/
+    public T getVertex(int v) {
+        return vertices[v];
+    }
+
+    /******************************************************************
+     * Returns the index of the given vertex, or -1 if it is not in
+     * the graph. Goes over the vertices, so it takes O(V) time; a user
+     * that looks vertices up often should keep their indices itself.
+     ******************************************************************/
+    public int getObjIdx(T vertex) {
+        for (int i = 0; i < vertices.length; i++){
+            if (vertices[i].equals(vertex))
+                return i;
+        }
+        return NOT_FOUND;
+    }
+
+    /******************************************************************
+     * Returns the position in the arc array of the first neighbor of
+     * the vertex at index v. Use with neighborEnd() and neighborAt().
+     ******************************************************************/
+    public int neighborStart(int v) {
+        return offsets.get(v);
+    }
+
+    /******************************************************************
+     * Returns the position just past the last neighbor of vertex v.
+     ******************************************************************/
+    public int neighborEnd(int v) {
+        return offsets.get(v + 1);
+    }
+
+    /******************************************************************
+     * Returns the index of the neighbor stored at the given position
+     * of the arc array.
+     ******************************************************************/
+    public int neighborAt(int position) {
+        return targets.get(position);
+    }
+
+    /******************************************************************
+     * Returns the number of distinct neighbors of vertex v.
+     ******************************************************************/
+    public int degree(int v) {
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    /******************************************************************
+     * Returns the vertex indices in order of decreasing degree, the
+     * lower index first among vertices of equal degree. Uses a counting
+     * sort on the degrees, so it takes O(V + largest degree) time.
+     ******************************************************************/
+    public int[] verticesByDegree() {
+        int n = vertices.length;
+        int[] degrees = new int[n];
+        int maxDegree = 0;
+        for (int v = 0; v < n; v++){
+            degrees[v] = degree(v);
+            maxDegree = Math.max(maxDegree, degrees[v]);
+        }
+        int[] start = new int[maxDegree + 2]; // start[maxDegree - d]: first position of degree d
+        for (int v = 0; v < n; v++)
+            start[maxDegree - degrees[v] + 1]++;
+        for (int i = 1; i < start.length; i++)
+            start[i] += start[i - 1];
+        int[] order = new int[n];
+        for (int v = 0; v < n; v++) // in index order, so ties stay in index order
+            order[start[maxDegree - degrees[v]]++] = v;
+        return order;
+    }
+
+    /******************************************************************
+     * Returns true iff an arc exists from index v1 to index v2.
+     ******************************************************************/
+    public boolean isArc(int v1, int v2) {
+        int low = offsets.get(v1), high = offsets.get(v1 + 1) - 1;
+        while (low <= high){
+            int mid = (low + high) >>> 1;
+            int value = targets.get(mid);
+            if (value < v2)
+                low = mid + 1;
+            else if (value > v2)
+                high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    /**
+     * Given a starting index, performs a breadth-first search traversal
+     * and returns the vertices in the order they were visited. Only the
+     * neighbors of each dequeued vertex are examined.
+     * @param startIndex the index in the graph to start BFS from
+     * @return iter the iterator containing vertices in breadth-first order
+     */
+    public ArrayIterator<T> iteratorBFS(int startIndex){
+        ArrayIterator<T> iter = new ArrayIterator<T>(); // keep track of result
+        boolean[] visited = new boolean[vertices.length];
+        IntRingBuffer queue = new IntRingBuffer(vertices.length); // each vertex is enqueued at most once
+        queue.enqueue(startIndex);
+        visited[startIndex] = true;
+        while (!queue.isEmpty()){
+            int current = queue.dequeue();
+            iter.add(vertices[current]);
+            for (int i = offsets.get(current); i < offsets.get(current + 1); i++){
+                int next = targets.get(i);
+                if (!visited[next]){
+                    visited[next] = true;
+                    queue.enqueue(next);
+                }
+            }
+        }
+        return iter;
+    }
+
+    /**
+     * Performs a breadth-first search from the given vertex and returns the
+     * number of arcs on a shortest path from it to every vertex, so that one
+     * traversal can answer many queries with the same source.
+     * @param source the index of the vertex to start from
+     * @return the distances by vertex index, -1 for vertices that cannot be reached
+     */
+    public int[] distancesBFS(int source){
+        int[] dist = new int[vertices.length];
+        Arrays.fill(dist, NOT_FOUND);
+        IntRingBuffer queue = new IntRingBuffer(vertices.length); // each vertex is enqueued at most once
+        queue.enqueue(source);
+        dist[source] = 0;
+        while (!queue.isEmpty()){
+            int current = queue.dequeue();
+            for (int i = offsets.get(current); i < offsets.get(current + 1); i++){
+                int next = targets.get(i);
+                if (dist[next] == NOT_FOUND){
+                    dist[next] = dist[current] + 1;
+                    queue.enqueue(next);
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Finds a shortest path between two vertices with a bidirectional
+     * breadth-first search: one search grows from the source and one from
+     * the target, and each step expands a whole level of whichever frontier
+     * is smaller. The search stops once the two searches meet.
+     *
+     * The search works in arrays kept per thread (see PathScratch), so its
+     * cost follows the number of vertices it reaches, not the size of the
+     * graph.
+     * @param source the index of the vertex the path starts at
+     * @param target the index of the vertex the path ends at
+     * @return the indices of the vertices on the path, from source to target,
+     * or null if there is no path
+     */
+    public int[] shortestPath(int source, int target){
+        if (source == target)
+            return new int[] {source};
+        PathScratch s = PATH_SCRATCH.get().prepare(vertices.length);
+        int stamp = s.stamp;
+        int[] seenF = s.seenF, seenB = s.seenB; // stamp if reached by the search from source / target
+        int[] distF = s.distF, distB = s.distB; // distance from source / target, valid if reached
+        int[] parentF = s.parentF, parentB = s.parentB; // previous vertex on the way back
+        s.frontF[0] = source;
+        s.frontB[0] = target;
+        int sizeF = 1, sizeB = 1;
+        seenF[source] = stamp;
+        distF[source] = 0;
+        seenB[target] = stamp;
+        distB[target] = 0;
+
+        int best = Integer.MAX_VALUE; // length of the shortest path found so far
+        int meetF = NOT_FOUND, meetB = NOT_FOUND; // arc where the two searches meet
+        while (sizeF > 0 && sizeB > 0 && best == Integer.MAX_VALUE){
+            boolean forward = sizeF <= sizeB; // expand the smaller frontier
+            int[] front = forward ? s.frontF : s.frontB;
+            int size = forward ? sizeF : sizeB;
+            int[] seen = forward ? seenF : seenB, otherSeen = forward ? seenB : seenF;
+            int[] dist = forward ? distF : distB, otherDist = forward ? distB : distF;
+            int[] parent = forward ? parentF : parentB;
+            int[] next = s.spare;
+            int nextSize = 0;
+            for (int k = 0; k < size; k++){
+                int u = front[k];
+                for (int i = offsets.get(u); i < offsets.get(u + 1); i++){
+                    int v = targets.get(i);
+                    if (otherSeen[v] == stamp && dist[u] + 1 + otherDist[v] < best){
+                        // the searches meet on the arc u -> v
+                        best = dist[u] + 1 + otherDist[v];
+                        meetF = forward ? u : v;
+                        meetB = forward ? v : u;
+                    }
+                    if (seen[v] != stamp){
+                        seen[v] = stamp;
+                        dist[v] = dist[u] + 1;
+                        parent[v] = u;
+                        next[nextSize++] = v; // the frontier arrays have room for every vertex
+                    }
+                }
+            }
+            s.spare = front; // the level just expanded is no longer needed
+            if (forward){ s.frontF = next; sizeF = nextSize; }
+            else { s.frontB = next; sizeB = nextSize; }
+        }
+        if (best == Integer.MAX_VALUE)
+            return null; // one search ran out of vertices, so there is no path
+
+        int[] path = new int[best + 1];
+        int pos = distF[meetF];
+        for (int v = meetF; pos >= 0; v = parentF[v])
+            path[pos--] = v; // walk back from the meeting point to the source
+        pos = distF[meetF] + 1;
+        for (int v = meetB; pos <= best; v = parentB[v])
+            path[pos++] = v; // and forward from the meeting point to the target
+        return path;
+    }
+
+    private static final ThreadLocal<PathScratch> PATH_SCRATCH = ThreadLocal.withInitial(PathScratch::new);
+
+    /**
+     * Working arrays of shortestPath(), one set per thread, shared by all
+     * graphs and grown to the largest graph searched. Instead of clearing
+     * the arrays before each search, every search gets a new stamp, and a
+     * vertex counts as reached only if its entry in seenF or seenB holds
+     * the current stamp.
+     */
+    private static class PathScratch {
+        int stamp = 0;
+        int[] seenF = new int[0], seenB = new int[0];
+        int[] distF = new int[0], distB = new int[0];
+        int[] parentF = new int[0], parentB = new int[0];
+        int[] frontF = new int[0], frontB = new int[0], spare = new int[0]; // levels of the searches
+
+        /** Makes room for n vertices and starts a new search. */
+        PathScratch prepare(int n){
+            if (seenF.length < n){
+                seenF = new int[n]; // zero: no stamp yet
+                seenB = new int[n];
+                distF = new int[n];
+                distB = new int[n];
+                parentF = new int[n];
+                parentB = new int[n];
+                frontF = new int[n];
+                frontB = new int[n];
+                spare = new int[n];
+                stamp = 0;
+            }
+            if (++stamp == Integer.MAX_VALUE){ // out of stamps: clear once and start over
+                Arrays.fill(seenF, 0);
+                Arrays.fill(seenB, 0);
+                stamp = 1;
+            }
+            return this;
+        }
+    }
+
+    /******************************************************************
+     * Returns true if the graph is empty and false otherwise.
+     ******************************************************************/
+    public boolean isEmpty() {
+        return vertices.length == 0;
+    }
+
+    /******************************************************************
+     * Returns the number of vertices in the graph.
+     ******************************************************************/
+    public int getNumVertices() {
+        return vertices.length;
+    }
+
+    /******************************************************************
+     * Returns the number of (distinct) arcs in the graph.
+     ******************************************************************/
+    public int getNumArcs() {
+        return targets.limit();
+    }
+
+    /******************************************************************
+     * Returns true iff a directed edge exists from v1 to v2.
+     ******************************************************************/
+    public boolean isArc (T vertex1, T vertex2) {
+        int index1 = getObjIdx(vertex1);
+        int index2 = getObjIdx(vertex2);
+        if (index1 == NOT_FOUND || index2 == NOT_FOUND)
+            return false;
+        return isArc(index1, index2);
+    }
+
+    /******************************************************************
+     * Returns true iff an edge exists between two given vertices
+     * which means that two corresponding arcs exist in the graph
+     ******************************************************************/
+    public boolean isEdge (T vertex1, T vertex2) {
+        return (isArc(vertex1, vertex2) && isArc(vertex2, vertex1));
+    }
+
+    /******************************************************************
+     * Not supported, the graph is read-only.
+     ******************************************************************/
+    public void addVertex (T vertex) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    /******************************************************************
+     * Not supported, the graph is read-only.
+     ******************************************************************/
+    public void removeVertex (T vertex) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    /******************************************************************
+     * Not supported, the graph is read-only.
+     ******************************************************************/
+    public void addArc (T vertex1, T vertex2) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    /******************************************************************
+     * Not supported, the graph is read-only.
+     ******************************************************************/
+    public void removeArc (T vertex1, T vertex2) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    /******************************************************************
+     * Not supported, the graph is read-only.
+     ******************************************************************/
+    public void addEdge (T vertex1, T vertex2) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    /******************************************************************
+     * Not supported, the graph is read-only.
+     ******************************************************************/
+    public void removeEdge (T vertex1, T vertex2) {
+        throw new UnsupportedOperationException("CSRGraph is read-only");
+    }
+
+    /******************************************************************
+    Returns a string representation of the graph.
+     ******************************************************************/
+    public String toString() {
+        if (vertices.length == 0) return "Graph is empty";
+
+        String result = "Vertices: \n";
+        result = result + Arrays.toString(vertices);
+
+        result = result + "\n\nEdges: \n";
+        for (int i = 0; i < vertices.length; i++){
+            result = result + "from " + vertices[i] + ": [";
+            for (int j = offsets.get(i); j < offsets.get(i + 1); j++){
+                result = result + vertices[targets.get(j)];
+                if (j < offsets.get(i + 1) - 1)
+                    result = result + ", ";
+            }
+            result = result + "]\n";
+        }
+        return result;
+    }
+
+    /******************************************************************
+     * Saves the current graph into a .tgf file.
+     * If it cannot save the file, a message is printed.
+     *****************************************************************/
+    public void saveTGF(String fName) {
+        try {
+            PrintWriter writer = new PrintWriter(new File(fName));
+            for (int i = 0; i < vertices.length; i++)
+                writer.println((i+1) + " " + vertices[i]);
+            writer.println("#"); // Prepare to print the edges
+            for (int i = 0; i < vertices.length; i++){
+                for (int j = offsets.get(i); j < offsets.get(i + 1); j++)
+                    writer.println((i+1) + " " + (targets.get(j)+1));
+            }
+            writer.close();
+        } catch (IOException ex) {
+            System.out.println("***ERROR***" +  fName + " could not be written: " + ex);
+        }
+    }
+}
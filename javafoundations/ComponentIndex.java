@@ -0,0 +1,188 @@
+package javafoundations;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/********************************************************************
+ * ComponentIndex.java
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ *
+ * The connected components of a graph at one point in time: each
+ * vertex gets the number of its component, so whether two vertices
+ * are connected at all is answered in O(1) time, before (or instead
+ * of) a search between them. Components are numbered 0, 1, ... in the
+ * order of their lowest vertex index, and their sizes are kept, so
+ * the number of components and how large they are can be read
+ * without going over the graph.
+ *
+ * An index is built from a UnionFind whose elements are the vertex
+ * indices (see VersionedGraph, which keeps one up to date as edges
+ * are added), or directly from a CSRGraph. It never changes after.
+ *
+ * KNOWN FEATURES/BUGS:
+ * The index describes one state of the graph. Building it takes
+ * O(V) time even from an up-to-date UnionFind.
+ ********************************************************************/
+
+public class ComponentIndex {
+    private int[] component; // component number of each vertex
+    private int[] sizes; // number of vertices of each component
+    private int largest; // number of vertices of the largest component
+
+    /******************************************************************
+     * Constructor. Takes the components from the sets of a UnionFind
+     * whose elements are the vertex indices of the graph.
+     ******************************************************************/
+    public ComponentIndex(UnionFind sets) {
+        int n = sets.size();
+        component = new int[n];
+        sizes = new int[sets.getNumSets()];
+        int[] numberOfRoot = new int[n]; // component number + 1 of each root, 0 if not numbered yet
+        int numbered = 0;
+        for (int v = 0; v < n; v++){
+            int root = sets.find(v);
+            if (numberOfRoot[root] == 0){
+                numberOfRoot[root] = ++numbered;
+                sizes[numbered - 1] = sets.setSize(root);
+                largest = Math.max(largest, sizes[numbered - 1]);
+            }
+            component[v] = numberOfRoot[root] - 1;
+        }
+    }
+
+    /******************************************************************
+     * Constructor. Finds the components of a graph, following its arcs
+     * both ways.
+     ******************************************************************/
+    public ComponentIndex(CSRGraph<?> graph) {
+        this(connect(graph));
+    }
+
+    /******************************************************************
+     * Helper. Returns a UnionFind of the vertex indices of a graph with
+     * the two ends of every arc in the same set.
+     ******************************************************************/
+    public static UnionFind connect(CSRGraph<?> graph) {
+        UnionFind sets = new UnionFind(graph.getNumVertices());
+        for (int v = 0; v < graph.getNumVertices(); v++){
+            for (int i = graph.neighborStart(v); i < graph.neighborEnd(v); i++)
+                sets.union(v, graph.neighborAt(i));
+        }
+        return sets;
+    }
+
+    /******************************************************************
+     * Returns the number of vertices the index describes.
+     ******************************************************************/
+    public int getNumVertices() {
+        return component.length;
+    }
+
+    /******************************************************************
+     * Returns the number of the component of vertex v.
+     ******************************************************************/
+    public int component(int v) {
+        return component[v];
+    }
+
+    /******************************************************************
+     * Returns true iff there is a path between vertices u and v.
+     ******************************************************************/
+    public boolean connected(int u, int v) {
+        return component[u] == component[v];
+    }
+
+    /******************************************************************
+     * Returns the number of components.
+     ******************************************************************/
+    public int getNumComponents() {
+        return sizes.length;
+    }
+
+    /******************************************************************
+     * Returns the number of vertices of component c.
+     ******************************************************************/
+    public int getSize(int c) {
+        return sizes[c];
+    }
+
+    /******************************************************************
+     * Returns the number of vertices in the component of vertex v.
+     ******************************************************************/
+    public int componentSize(int v) {
+        return sizes[component[v]];
+    }
+
+    /******************************************************************
+     * Returns the number of vertices of the largest component, 0 if
+     * there are no vertices.
+     ******************************************************************/
+    public int getLargestSize() {
+        return largest;
+    }
+
+    /******************************************************************
+     * Returns how many components there are of each size, by size.
+     ******************************************************************/
+    public SortedMap<Integer, Integer> getSizeCounts() {
+        TreeMap<Integer, Integer> counts = new TreeMap<Integer, Integer>();
+        for (int size : sizes)
+            counts.merge(size, 1, Integer::sum);
+        return counts;
+    }
+
+    /******************************************************************
+     * Returns a string representation of the index.
+     ******************************************************************/
+    public String toString() {
+        return "ComponentIndex: " + component.length + " vertices in " + sizes.length
+            + " components, largest " + largest + ", sizes (size=count) " + getSizeCounts();
+    }
+
+    /******************************************************************
+     * Testing: on a random graph with a few components, two vertices
+     * must be connected exactly when a breadth-first search finds a
+     * path between them.
+     ******************************************************************/
+    public static void main(String[] args) {
+        AdjListGraph<Integer> g = new AdjListGraph<Integer>();
+        java.util.Random random = new java.util.Random(11);
+        int n = 2000;
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 10000; e++){
+            int u = random.nextInt(n), w = random.nextInt(n);
+            if (u % 5 == w % 5) // five parts, some split further: the graph is sparse
+                g.addEdge(u, w);
+        }
+        CSRGraph<Integer> c = new CSRGraph<Integer>(g);
+        ComponentIndex index = new ComponentIndex(c);
+        System.out.println(index);
+
+        int wrong = 0;
+        for (int p = 0; p < 200; p++){
+            int u = random.nextInt(n);
+            int[] dist = c.distancesBFS(u);
+            for (int v = 0; v < n; v++){
+                if (index.connected(u, v) != (dist[v] != -1)) wrong++;
+            }
+        }
+        System.out.println("wrong answers Expected: 0, actual: " + wrong);
+        int total = 0;
+        for (int i = 0; i < index.getNumComponents(); i++)
+            total += index.getSize(i);
+        System.out.println("vertices in all components Expected: " + n + ", actual: " + total);
+        System.out.println("component of vertex 0 Expected: 0, actual: " + index.component(0));
+
+        UnionFind sets = new UnionFind();
+        int a = sets.add(), b = sets.add(), d = sets.add();
+        sets.union(a, b);
+        System.out.println("sets Expected: 2, actual: " + sets.getNumSets()
+            + "; union again Expected: false, actual: " + sets.union(b, a));
+        System.out.println("connected(a, d) Expected: false, actual: " + sets.connected(a, d)
+            + "; setSize(b) Expected: 2, actual: " + sets.setSize(b));
+    }
+}
@@ -0,0 +1,285 @@
+//********************************************************************
+//  ConcurrentArrayQueue.java       Java Foundations
+//
+//  Represents a bounded array implementation of a queue that any
+//  number of threads can add to and remove from at the same time,
+//  without locks. Each slot of the array has a sequence number that
+//  says whose turn it is: a slot whose sequence equals the rear
+//  counter is free for the next producer, and a slot whose sequence
+//  equals the front counter + 1 holds the next element for a
+//  consumer. Producers and consumers claim a counter value with a
+//  compare-and-set and then publish the slot by advancing its
+//  sequence, so two threads never use the same slot at once.
+//
+//  offer() and poll() report a full or empty queue with their return
+//  value; enqueue() and dequeue() throw exceptions instead, like the
+//  other queues. Null elements are not allowed.
+//
+//  While other threads are using the queue, size(), isEmpty() and
+//  toString() describe some recent state of it.
+//********************************************************************
+
+package javafoundations;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javafoundations.exceptions.*;
+
+public class ConcurrentArrayQueue<T> implements Queue<T>
+{
+  private final int mask; // capacity - 1, the capacity being a power of two
+  private final AtomicLongArray sequences; // turn number of each slot
+  private final AtomicReferenceArray<T> elements;
+  private final AtomicLong front = new AtomicLong(); // number of elements removed
+  private final AtomicLong rear = new AtomicLong(); // number of elements added
+
+  //-----------------------------------------------------------------
+  //  Creates an empty queue that can hold at least the given number
+  //  of elements (rounded up to a power of two).
+  //-----------------------------------------------------------------
+  public ConcurrentArrayQueue(int capacity)
+  {
+    if (capacity < 1 || capacity > (1 << 30))
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+    int size = 2;
+    while (size < capacity)
+      size <<= 1;
+    mask = size - 1;
+    sequences = new AtomicLongArray(size);
+    elements = new AtomicReferenceArray<T>(size);
+    for (int i = 0; i < size; i++)
+      sequences.set(i, i); // slot i is free for the element with rear counter i
+  }
+
+  //-----------------------------------------------------------------
+  //  Adds the specified element to the rear of this queue if there is
+  //  room. Returns true if it was added and false if the queue is full.
+  //-----------------------------------------------------------------
+  public boolean offer (T element)
+  {
+    if (element == null)
+      throw new NullPointerException("Null elements are not allowed");
+    long pos = rear.get();
+    while (true)
+    {
+      int slot = (int) pos & mask;
+      long diff = sequences.getAcquire(slot) - pos;
+      if (diff == 0)
+      {
+        if (rear.compareAndSet(pos, pos + 1))
+        {
+          elements.setPlain(slot, element);
+          sequences.setRelease(slot, pos + 1); // now the slot holds an element
+          return true;
+        }
+        pos = rear.get(); // another producer took this position
+      }
+      else if (diff < 0)
+        return false; // the slot still holds an element from one lap ago: full
+      else
+        pos = rear.get(); // another producer already filled this position
+    }
+  }
+
+  //-----------------------------------------------------------------
+  //  Removes and returns the element at the front of this queue, or
+  //  returns null if the queue is empty.
+  //-----------------------------------------------------------------
+  public T poll()
+  {
+    long pos = front.get();
+    while (true)
+    {
+      int slot = (int) pos & mask;
+      long diff = sequences.getAcquire(slot) - (pos + 1);
+      if (diff == 0)
+      {
+        if (front.compareAndSet(pos, pos + 1))
+        {
+          T result = elements.getPlain(slot);
+          elements.setPlain(slot, null);
+          sequences.setRelease(slot, pos + mask + 1); // free for the producer one lap ahead
+          return result;
+        }
+        pos = front.get(); // another consumer took this position
+      }
+      else if (diff < 0)
+        return null; // the slot has not been filled yet: empty
+      else
+        pos = front.get(); // another consumer already emptied this position
+    }
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the element at the front of this queue without removing
+  //  it, or null if the queue is empty.
+  //-----------------------------------------------------------------
+  public T peek()
+  {
+    while (true)
+    {
+      long pos = front.get();
+      int slot = (int) pos & mask;
+      if (sequences.getAcquire(slot) - (pos + 1) < 0)
+        return null;
+      T result = elements.get(slot);
+      if (result != null && front.get() == pos)
+        return result; // nobody removed it while it was being read
+    }
+  }
+
+  //-----------------------------------------------------------------
+  //  Adds the specified element to the rear of this queue. Throws an
+  //  IllegalStateException if the queue is full.
+  //-----------------------------------------------------------------
+  public void enqueue (T element)
+  {
+    if (!offer(element))
+      throw new IllegalStateException("Enqueue operation failed. The queue is full.");
+  }
+
+  //-----------------------------------------------------------------
+  //  Removes the element at the front of this queue and returns a
+  //  reference to it. Throws an EmptyCollectionException if the
+  //  queue is empty.
+  //-----------------------------------------------------------------
+  public T dequeue() throws EmptyCollectionException
+  {
+    T result = poll();
+    if (result == null)
+      throw new EmptyCollectionException("Dequeue operation failed. The queue is empty.");
+    return result;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns a reference to the element at the front of this queue.
+  //  Throws an EmptyCollectionException if the queue is empty.
+  //-----------------------------------------------------------------
+  public T first() throws EmptyCollectionException
+  {
+    T result = peek();
+    if (result == null)
+      throw new EmptyCollectionException("First operation failed. The queue is empty.");
+    return result;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns true if this queue is empty and false otherwise.
+  //-----------------------------------------------------------------
+  public boolean isEmpty()
+  {
+    return size() == 0;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the number of elements in this queue.
+  //-----------------------------------------------------------------
+  public int size()
+  {
+    long removed = front.get();
+    long added = rear.get(); // read second, so it is at least removed
+    return (int) Math.max(0, Math.min(added - removed, mask + 1));
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the number of elements this queue can hold.
+  //-----------------------------------------------------------------
+  public int capacity()
+  {
+    return mask + 1;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns a string representation of this queue, front first.
+  //-----------------------------------------------------------------
+  public String toString()
+  {
+    String result = "";
+    long removed = front.get();
+    long added = rear.get();
+    for (long pos = removed; pos < added; pos++)
+    {
+      T element = elements.get((int) pos & mask);
+      if (element != null)
+        result += (element + "\n");
+    }
+    return result;
+  }
+
+  //-----------------------------------------------------------------
+  //  Stress test: several producers and consumers share one small
+  //  queue. Every element must come out exactly once, and the
+  //  elements of each producer must come out in the order they went
+  //  in. Usage: java javafoundations.ConcurrentArrayQueue
+  //  [producers] [consumers] [elements per producer]
+  //-----------------------------------------------------------------
+  public static void main(String[] args) throws InterruptedException
+  {
+    int producers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+    int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    int perProducer = args.length > 2 ? Integer.parseInt(args[2]) : 250000;
+    long total = (long) producers * perProducer;
+    ConcurrentArrayQueue<Long> q = new ConcurrentArrayQueue<Long>(64);
+    System.out.println("capacity Expected: 64, actual: " + q.capacity());
+
+    java.util.concurrent.atomic.AtomicIntegerArray seen =
+      new java.util.concurrent.atomic.AtomicIntegerArray((int) total);
+    java.util.concurrent.atomic.AtomicLong taken = new java.util.concurrent.atomic.AtomicLong();
+    java.util.concurrent.atomic.AtomicInteger outOfOrder = new java.util.concurrent.atomic.AtomicInteger();
+    Thread[] threads = new Thread[producers + consumers];
+    for (int p = 0; p < producers; p++)
+    {
+      final int producer = p;
+      threads[p] = new Thread(() -> {
+        for (int i = 0; i < perProducer; i++)
+        {
+          Long element = (long) producer * perProducer + i;
+          while (!q.offer(element))
+            Thread.yield(); // let the other side run
+        }
+      });
+    }
+    for (int c = 0; c < consumers; c++)
+    {
+      threads[producers + c] = new Thread(() -> {
+        long[] last = new long[producers]; // last element seen from each producer
+        java.util.Arrays.fill(last, -1);
+        while (taken.get() < total)
+        {
+          Long element = q.poll();
+          if (element == null)
+          {
+            Thread.yield(); // let the other side run
+            continue;
+          }
+          taken.incrementAndGet();
+          seen.incrementAndGet((int) (long) element);
+          int producer = (int) (element / perProducer);
+          if (element <= last[producer])
+            outOfOrder.incrementAndGet();
+          last[producer] = element;
+        }
+      });
+    }
+    long start = System.nanoTime();
+    for (Thread t : threads)
+      t.start();
+    for (Thread t : threads)
+      t.join();
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    int missing = 0, duplicated = 0;
+    for (int i = 0; i < total; i++)
+    {
+      if (seen.get(i) == 0) missing++;
+      if (seen.get(i) > 1) duplicated++;
+    }
+    System.out.println("taken Expected: " + total + ", actual: " + taken.get());
+    System.out.println("missing Expected: 0, actual: " + missing);
+    System.out.println("duplicated Expected: 0, actual: " + duplicated);
+    System.out.println("out of order Expected: 0, actual: " + outOfOrder.get());
+    System.out.println("isEmpty Expected: true, actual: " + q.isEmpty());
+    System.out.printf("%d producers, %d consumers: %.1f million elements/s%n",
+                      producers, consumers, total / seconds / 1e6);
+  }
+}
@@ -0,0 +1,33 @@
+//********************************************************************
+//  IntQueue.java       Java Foundations
+//
+//  Defines the interface to a queue of int values. Unlike Queue<T>,
+//  the values are not boxed, so adding one allocates nothing.
+//********************************************************************
+
+package javafoundations;
+
+public interface IntQueue
+{
+   //  Adds the specified value to the rear of the queue.
+   public void enqueue (int value);
+
+   //  Removes and returns the value at the front of the queue.
+   public int dequeue();
+
+   //  Returns the value at the front of the queue without removing it.
+   public int first();
+
+   //  Removes every value, keeping the space that was allocated.
+   public void clear();
+
+   //  Returns true if the queue contains no values and false
+   //  otherwise.
+   public boolean isEmpty();
+
+   //  Returns the number of values in the queue.
+   public int size();
+
+   //  Returns a string representation of the queue.
+   public String toString();
+}
@@ -0,0 +1,170 @@
+//********************************************************************
+//  IntRingBuffer.java       Java Foundations
+//
+//  Represents an array implementation of a queue of int values in
+//  which neither end of the queue is fixed in the array, like
+//  CircularArrayQueue. The capacity is always a power of two, so
+//  positions wrap around with a bit mask instead of %. The front and
+//  rear counters only ever increase, and the position of a counter in
+//  the array is (counter & mask). The queue can be created with room
+//  for all the values it will hold, and cleared and reused without
+//  allocating again.
+//********************************************************************
+
+package javafoundations;
+import javafoundations.exceptions.*;
+
+public class IntRingBuffer implements IntQueue
+{
+  private final int DEFAULT_CAPACITY = 16;
+  private int front, rear; // counters of values removed and added
+  private int mask; // capacity - 1
+  private int[] queue;
+
+  //-----------------------------------------------------------------
+  //  Creates an empty queue using the default capacity.
+  //-----------------------------------------------------------------
+  public IntRingBuffer()
+  {
+    queue = new int[DEFAULT_CAPACITY];
+    mask = DEFAULT_CAPACITY - 1;
+  }
+
+  //-----------------------------------------------------------------
+  //  Creates an empty queue with room for at least the given number
+  //  of values before it has to grow.
+  //-----------------------------------------------------------------
+  public IntRingBuffer(int expectedSize)
+  {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < expectedSize && capacity < (1 << 30))
+      capacity <<= 1;
+    queue = new int[capacity];
+    mask = capacity - 1;
+  }
+
+  //-----------------------------------------------------------------
+  //  Adds the specified value to the rear of this queue, expanding
+  //  the capacity of the queue array if necessary.
+  //-----------------------------------------------------------------
+  public void enqueue (int value)
+  {
+    if (rear - front == queue.length)
+      expandCapacity();
+    queue[rear & mask] = value;
+    rear++;
+  }
+
+  //-----------------------------------------------------------------
+  //  Creates a new array to store the contents of this queue with
+  //  twice the capacity of the old one.
+  //-----------------------------------------------------------------
+  private void expandCapacity()
+  {
+    int count = rear - front;
+    int[] larger = new int[queue.length * 2];
+    for (int index = 0; index < count; index++)
+      larger[index] = queue[(front + index) & mask];
+    front = 0;
+    rear = count;
+    queue = larger;
+    mask = larger.length - 1;
+  }
+
+  //-----------------------------------------------------------------
+  //  Removes and returns the value at the front of this queue.
+  //-----------------------------------------------------------------
+  public int dequeue() throws EmptyCollectionException
+  {
+    if (front == rear)
+      throw new EmptyCollectionException("Dequeue operation failed. Queue is empty.");
+    return queue[(front++) & mask];
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the value at the front of this queue.
+  //-----------------------------------------------------------------
+  public int first() throws EmptyCollectionException
+  {
+    if (front == rear)
+      throw new EmptyCollectionException("First operation failed. Queue is empty.");
+    return queue[front & mask];
+  }
+
+  //-----------------------------------------------------------------
+  //  Removes every value. The array is kept, so a cleared queue can
+  //  be filled again without allocating.
+  //-----------------------------------------------------------------
+  public void clear()
+  {
+    front = rear = 0;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns true if this queue is empty and false otherwise.
+  //-----------------------------------------------------------------
+  public boolean isEmpty()
+  {
+    return front == rear;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the number of values in this queue.
+  //-----------------------------------------------------------------
+  public int size()
+  {
+    return rear - front;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the number of values this queue can hold before it has
+  //  to grow.
+  //-----------------------------------------------------------------
+  public int capacity()
+  {
+    return queue.length;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns a string representation of this queue, front first.
+  //-----------------------------------------------------------------
+  public String toString()
+  {
+    String result = "";
+    for (int i = front; i != rear; i++)
+      result += (queue[i & mask] + "\n");
+    return result;
+  }
+
+  //-----------------------------------------------------------------
+  //  Testing
+  //-----------------------------------------------------------------
+  public static void main(String[] args)
+  {
+    IntRingBuffer q = new IntRingBuffer(20);
+    System.out.println("capacity Expected: 32, actual: " + q.capacity());
+    for (int i = 0; i < 40; i++)
+      q.enqueue(i);
+    System.out.println("size Expected: 40, actual: " + q.size());
+    System.out.println("capacity Expected: 64, actual: " + q.capacity());
+    for (int i = 0; i < 30; i++)
+      q.dequeue();
+    for (int i = 40; i < 90; i++)
+      q.enqueue(i); // wraps around the end of the array
+    System.out.println("first Expected: 30, actual: " + q.first());
+    int sum = 0;
+    while (!q.isEmpty())
+      sum += q.dequeue();
+    System.out.println("sum Expected: " + (30 + 89) * 60 / 2 + ", actual: " + sum);
+    q.clear();
+    q.enqueue(7);
+    System.out.println("after clear Expected: 7 (capacity 64), actual: " + q.dequeue()
+                       + " (capacity " + q.capacity() + ")");
+    try {
+      q.dequeue();
+      System.out.println("dequeue on empty Expected: EmptyCollectionException, actual: none");
+    } catch (EmptyCollectionException e) {
+      System.out.println("dequeue on empty Expected: EmptyCollectionException, actual: " + e.getMessage());
+    }
+  }
+}
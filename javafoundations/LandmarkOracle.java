@@ -0,0 +1,286 @@
+package javafoundations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/********************************************************************
+ * LandmarkOracle.java
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ *
+ * Approximate distances between the vertices of a CSRGraph, answered
+ * in O(k) time per pair without a traversal. When the oracle is built,
+ * the k vertices of highest degree are chosen as landmarks and a
+ * breadth-first search from each landmark records its distance to
+ * every vertex (the searches run in parallel). Since the graph is
+ * undirected, for every landmark L the triangle inequality gives
+ *   |d(u,L) - d(v,L)| <= d(u,v) <= d(u,L) + d(L,v)
+ * and the oracle answers with the best of these bounds over all
+ * landmarks. If a landmark reaches one of the two vertices but not
+ * the other, they are in different components and cannot be reached
+ * from each other at all.
+ *
+ * The distances are stored vertex by vertex (the k distances of a
+ * vertex are next to each other), so a query reads two short runs of
+ * memory. They take 4k bytes per vertex.
+ *
+ * KNOWN FEATURES/BUGS:
+ * The oracle describes the graph it was built from; it must be built
+ * again after the graph changes. Pairs in a component that contains
+ * no landmark get no estimate.
+ ********************************************************************/
+
+public class LandmarkOracle<T> {
+    private final int NOT_FOUND = -1;
+    private CSRGraph<T> graph; // the graph the distances were found in
+    private int k; // number of landmarks
+    private int[] landmarks; // vertex index of each landmark
+    private int[] dist; // dist[v * k + i]: distance from landmark i to vertex v, -1 if unreachable
+
+    /******************************************************************
+     * Constructor. Chooses the k vertices of highest degree as
+     * landmarks and runs a breadth-first search from each of them, on
+     * the given number of threads.
+     ******************************************************************/
+    public LandmarkOracle(CSRGraph<T> graph, int k, int numThreads) {
+        this.graph = graph;
+        int n = graph.getNumVertices();
+        this.k = Math.max(0, Math.min(k, n));
+        landmarks = Arrays.copyOf(graph.verticesByDegree(), this.k); // highest degree first
+        dist = new int[Math.multiplyExact(n, this.k)];
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, numThreads));
+        try {
+            ArrayList<Callable<Void>> searches = new ArrayList<Callable<Void>>();
+            for (int i = 0; i < this.k; i++){
+                final int landmark = i;
+                searches.add(() -> {
+                    int[] d = graph.distancesBFS(landmarks[landmark]);
+                    for (int v = 0; v < n; v++)
+                        dist[v * this.k + landmark] = d[v];
+                    return null;
+                });
+            }
+            pool.invokeAll(searches); // each search writes its own column of dist
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /******************************************************************
+     * Returns the graph the oracle was built from.
+     ******************************************************************/
+    public CSRGraph<T> getGraph() {
+        return graph;
+    }
+
+    /******************************************************************
+     * Returns the number of landmarks.
+     ******************************************************************/
+    public int getNumLandmarks() {
+        return k;
+    }
+
+    /******************************************************************
+     * Returns the vertex index of landmark i.
+     ******************************************************************/
+    public int getLandmark(int i) {
+        return landmarks[i];
+    }
+
+    /******************************************************************
+     * Returns true iff some landmark shows that there is no path
+     * between vertices u and v.
+     ******************************************************************/
+    public boolean isUnreachable(int u, int v) {
+        int bu = u * k, bv = v * k;
+        for (int i = 0; i < k; i++){
+            if ((dist[bu + i] == NOT_FOUND) != (dist[bv + i] == NOT_FOUND))
+                return true;
+        }
+        return false;
+    }
+
+    /******************************************************************
+     * Returns a lower bound on the distance between vertices u and v,
+     * or -1 if there is no path between them.
+     ******************************************************************/
+    public int lowerBound(int u, int v) {
+        int bu = u * k, bv = v * k;
+        int best = 0;
+        for (int i = 0; i < k; i++){
+            int du = dist[bu + i], dv = dist[bv + i];
+            if ((du == NOT_FOUND) != (dv == NOT_FOUND))
+                return NOT_FOUND; // different components
+            if (du != NOT_FOUND)
+                best = Math.max(best, Math.abs(du - dv));
+        }
+        return best;
+    }
+
+    /******************************************************************
+     * Returns an upper bound on the distance between vertices u and v,
+     * or -1 if no landmark reaches both of them (which is also the case
+     * if there is no path between them).
+     ******************************************************************/
+    public int upperBound(int u, int v) {
+        if (u == v)
+            return 0;
+        int bu = u * k, bv = v * k;
+        int best = Integer.MAX_VALUE;
+        for (int i = 0; i < k; i++){
+            int du = dist[bu + i], dv = dist[bv + i];
+            if (du != NOT_FOUND && dv != NOT_FOUND)
+                best = Math.min(best, du + dv);
+        }
+        return (best == Integer.MAX_VALUE) ? NOT_FOUND : best;
+    }
+
+    /******************************************************************
+     * Returns an estimate of the distance between vertices u and v:
+     * the upper bound, which is the length of an actual path through a
+     * landmark. Returns -1 if there is no estimate.
+     ******************************************************************/
+    public int estimate(int u, int v) {
+        return upperBound(u, v);
+    }
+
+    /******************************************************************
+     * How close the estimates are to the exact distances, over a sample
+     * of pairs. Only pairs that are connected count towards the errors.
+     ******************************************************************/
+    public static class Report {
+        private int numPairs; // pairs sampled
+        private int numConnected; // pairs with a path between them
+        private int numEstimated; // connected pairs that got an estimate
+        private int numExact; // estimated pairs whose estimate was exact
+        private long totalError; // sum of estimate - exact distance
+        private double totalRelativeError; // sum of (estimate - exact) / exact
+        private int maxError;
+        private int numUnreachableFound; // unconnected pairs the landmarks proved unconnected
+
+        /** Returns the number of pairs sampled. */
+        public int getNumPairs() { return numPairs; }
+
+        /** Returns the number of sampled pairs with a path between them. */
+        public int getNumConnected() { return numConnected; }
+
+        /** Returns the share (0-1) of connected pairs that got an estimate. */
+        public double getCoverage() {
+            return (numConnected == 0) ? 0 : (double) numEstimated / numConnected;
+        }
+
+        /** Returns the share (0-1) of estimated pairs whose estimate was exact. */
+        public double getExactShare() {
+            return (numEstimated == 0) ? 0 : (double) numExact / numEstimated;
+        }
+
+        /** Returns the mean of estimate - exact distance, in arcs. */
+        public double getMeanError() {
+            return (numEstimated == 0) ? 0 : (double) totalError / numEstimated;
+        }
+
+        /** Returns the mean of (estimate - exact) / exact. */
+        public double getMeanRelativeError() {
+            return (numEstimated == 0) ? 0 : totalRelativeError / numEstimated;
+        }
+
+        /** Returns the largest estimate - exact distance, in arcs. */
+        public int getMaxError() { return maxError; }
+
+        /** Returns the share (0-1) of unconnected pairs that the landmarks proved unconnected. */
+        public double getUnreachableFoundShare() {
+            int unconnected = numPairs - numConnected;
+            return (unconnected == 0) ? 1 : (double) numUnreachableFound / unconnected;
+        }
+
+        public String toString() {
+            return String.format("%d pairs (%d connected): coverage %.1f%%, exact %.1f%%, mean error %.3f arcs"
+                + " (%.1f%% relative), max error %d arcs, unconnected pairs found %.1f%%",
+                numPairs, numConnected, 100 * getCoverage(), 100 * getExactShare(), getMeanError(),
+                100 * getMeanRelativeError(), maxError, 100 * getUnreachableFoundShare());
+        }
+    }
+
+    /******************************************************************
+     * Compares the estimates with exact distances (found by breadth-
+     * first search) for random pairs of the given vertices, and reports
+     * how close they are.
+     * @param vertices the vertices to draw pairs from
+     * @param numPairs the number of pairs to sample
+     * @param seed the seed of the random numbers
+     ******************************************************************/
+    public Report accuracy(int[] vertices, int numPairs, long seed) {
+        Report r = new Report();
+        if (vertices.length == 0)
+            return r;
+        Random random = new Random(seed);
+        for (int p = 0; p < numPairs; p++){
+            int u = vertices[random.nextInt(vertices.length)];
+            int v = vertices[random.nextInt(vertices.length)];
+            int[] path = graph.shortestPath(u, v);
+            r.numPairs++;
+            if (path == null){
+                if (isUnreachable(u, v))
+                    r.numUnreachableFound++;
+                continue;
+            }
+            r.numConnected++;
+            int exact = path.length - 1;
+            int estimate = estimate(u, v);
+            if (estimate == NOT_FOUND)
+                continue;
+            int error = estimate - exact;
+            r.numEstimated++;
+            if (error == 0)
+                r.numExact++;
+            r.totalError += error;
+            if (exact > 0)
+                r.totalRelativeError += (double) error / exact;
+            r.maxError = Math.max(r.maxError, error);
+        }
+        return r;
+    }
+
+    /******************************************************************
+     * Testing: on a random graph with a few components, the bounds must
+     * always hold around the exact distance.
+     ******************************************************************/
+    public static void main(String[] args) {
+        AdjListGraph<Integer> g = new AdjListGraph<Integer>();
+        Random random = new Random(3);
+        int n = 2000;
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 12000; e++){
+            int u = random.nextInt(n), w = random.nextInt(n);
+            if (u % 4 == w % 4) // four components, more or less
+                g.addEdge(u, w);
+        }
+        CSRGraph<Integer> c = new CSRGraph<Integer>(g);
+        LandmarkOracle<Integer> oracle = new LandmarkOracle<Integer>(c, 8, 4);
+        System.out.println("landmarks Expected: 8, actual: " + oracle.getNumLandmarks());
+        System.out.println("first landmark has the highest degree Expected: true, actual: "
+            + (c.degree(oracle.getLandmark(0)) >= c.degree(oracle.getLandmark(7))));
+
+        int broken = 0; // pairs whose exact distance is outside the bounds
+        for (int p = 0; p < 5000; p++){
+            int u = random.nextInt(n), v = random.nextInt(n);
+            int exact = c.distancesBFS(u)[v];
+            int low = oracle.lowerBound(u, v), high = oracle.upperBound(u, v);
+            if (exact == -1 ? high != -1 // a landmark reaching both would connect them
+                            : low == -1 || low > exact || (high != -1 && high < exact))
+                broken++;
+        }
+        System.out.println("bounds broken Expected: 0, actual: " + broken);
+        int[] all = new int[n];
+        for (int v = 0; v < n; v++)
+            all[v] = v;
+        System.out.println(oracle.accuracy(all, 2000, 1));
+    }
+}
@@ -0,0 +1,382 @@
+package javafoundations;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/********************************************************************
+ * PrunedLandmarkLabels.java
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ *
+ * Index for exact distances between the vertices of a CSRGraph,
+ * built by pruned landmark labeling. Every vertex gets a label: a
+ * list of (hub, distance) pairs, such that any two connected vertices
+ * have a hub on a shortest path between them in common. The distance
+ * between u and v is then the smallest d(u,hub) + d(hub,v) over the
+ * hubs of both labels, found by merging the two labels, which are
+ * sorted by hub; no traversal is needed.
+ *
+ * To build the labels, the vertices are ranked by degree, highest
+ * first, and a breadth-first search is run from each vertex in that
+ * order. The search from r adds (r, d) to the label of each vertex it
+ * reaches at distance d, but stops at a vertex whose distance from r
+ * the labels found so far already give; on graphs with a few very
+ * connected vertices, most searches stop after a few steps.
+ *
+ * The labels can be saved to a file and opened again (with
+ * FileChannel.map, like a HollywoodSnapshot) for the same graph. The
+ * file holds a fingerprint of the graph's arcs, so labels are never
+ * opened for another graph that just happens to have as many vertices
+ * and arcs.
+ *
+ * File layout (big-endian):
+ *   header   magic, version, #vertices, #arcs, #entries, 0, long fingerprint
+ *   offsets  int[#vertices + 1]
+ *   hubs     int[#entries]
+ *   dists    short[#entries]
+ *
+ * KNOWN FEATURES/BUGS:
+ * The labels describe the graph they were built from; they must be
+ * built again after the graph changes. Building takes much longer
+ * than a single breadth-first search.
+ ********************************************************************/
+
+public class PrunedLandmarkLabels {
+    public static final int MAGIC = 0x504C4C53; // "PLLS"
+    public static final int VERSION = 2;
+    private static final int HEADER_BYTES = 6 * 4 + 8;
+    private final int NOT_FOUND = -1;
+    private static final int INFINITY = Integer.MAX_VALUE / 2; // larger than any distance, and safe to add
+
+    private CSRGraph<?> graph; // the graph the labels describe
+    private IntBuffer offsets; // label of v is entries offsets[v] up to offsets[v+1]
+    private IntBuffer hubs; // rank of the hub of each entry, increasing within a label
+    private ShortBuffer dists; // distance to the hub of each entry
+
+    /******************************************************************
+     * Constructor. Builds the labels of every vertex of the graph.
+     ******************************************************************/
+    public PrunedLandmarkLabels(CSRGraph<?> graph) {
+        this.graph = graph;
+        int n = graph.getNumVertices();
+        int[] order = graph.verticesByDegree(); // vertex of each rank
+
+        int[][] labelHubs = new int[n][]; // labels while they are built
+        short[][] labelDists = new short[n][];
+        int[] labelSize = new int[n];
+        for (int v = 0; v < n; v++){
+            labelHubs[v] = new int[2];
+            labelDists[v] = new short[2];
+        }
+
+        int[] rootDist = new int[n]; // by hub rank: distance from the current root, if in its label
+        Arrays.fill(rootDist, INFINITY);
+        int[] dist = new int[n]; // distance from the current root, -1 if not reached
+        Arrays.fill(dist, NOT_FOUND);
+        int[] visited = new int[n]; // vertices reached by the current search, in order
+        for (int rank = 0; rank < n; rank++){
+            int root = order[rank];
+            for (int j = 0; j < labelSize[root]; j++)
+                rootDist[labelHubs[root][j]] = labelDists[root][j];
+
+            int numVisited = 0, head = 0; // visited[head..numVisited) is the queue
+            visited[numVisited++] = root;
+            dist[root] = 0;
+            while (head < numVisited){
+                int u = visited[head++];
+                int d = dist[u];
+                if (coveredDistance(labelHubs[u], labelDists[u], labelSize[u], rootDist) <= d)
+                    continue; // the labels already give this distance: prune
+                if (d > Short.MAX_VALUE)
+                    throw new IllegalStateException("Distance " + d + " is too large for the labels");
+                if (labelSize[u] == labelHubs[u].length){
+                    labelHubs[u] = Arrays.copyOf(labelHubs[u], labelSize[u] * 2);
+                    labelDists[u] = Arrays.copyOf(labelDists[u], labelSize[u] * 2);
+                }
+                labelHubs[u][labelSize[u]] = rank; // ranks only grow, so labels stay sorted
+                labelDists[u][labelSize[u]] = (short) d;
+                labelSize[u]++;
+                for (int i = graph.neighborStart(u); i < graph.neighborEnd(u); i++){
+                    int w = graph.neighborAt(i);
+                    if (dist[w] == NOT_FOUND){
+                        dist[w] = d + 1;
+                        visited[numVisited++] = w;
+                    }
+                }
+            }
+
+            for (int i = 0; i < numVisited; i++)
+                dist[visited[i]] = NOT_FOUND;
+            for (int j = 0; j < labelSize[root]; j++)
+                rootDist[labelHubs[root][j]] = INFINITY;
+        }
+
+        // pack the labels into one array each, vertex by vertex
+        int[] starts = new int[n + 1];
+        for (int v = 0; v < n; v++)
+            starts[v + 1] = starts[v] + labelSize[v];
+        int[] allHubs = new int[starts[n]];
+        short[] allDists = new short[starts[n]];
+        for (int v = 0; v < n; v++){
+            System.arraycopy(labelHubs[v], 0, allHubs, starts[v], labelSize[v]);
+            System.arraycopy(labelDists[v], 0, allDists, starts[v], labelSize[v]);
+            labelHubs[v] = null; // let the built label go
+            labelDists[v] = null;
+        }
+        offsets = IntBuffer.wrap(starts);
+        hubs = IntBuffer.wrap(allHubs);
+        dists = ShortBuffer.wrap(allDists);
+    }
+
+    /******************************************************************
+     * Helper constructor for open().
+     ******************************************************************/
+    private PrunedLandmarkLabels(CSRGraph<?> graph, IntBuffer offsets, IntBuffer hubs, ShortBuffer dists) {
+        this.graph = graph;
+        this.offsets = offsets;
+        this.hubs = hubs;
+        this.dists = dists;
+    }
+
+    /******************************************************************
+     * Helper for building. Returns the smallest distance from the
+     * current root to a vertex through the hubs of the vertex's label,
+     * given the root's label spread out by hub rank.
+     ******************************************************************/
+    private static int coveredDistance(int[] labelHubs, short[] labelDists, int size, int[] rootDist) {
+        int best = INFINITY;
+        for (int j = 0; j < size; j++)
+            best = Math.min(best, rootDist[labelHubs[j]] + labelDists[j]);
+        return best;
+    }
+
+    /******************************************************************
+     * Returns the graph the labels describe.
+     ******************************************************************/
+    public CSRGraph<?> getGraph() {
+        return graph;
+    }
+
+    /******************************************************************
+     * Returns the number of arcs on a shortest path between vertices u
+     * and v, or -1 if there is no path between them.
+     ******************************************************************/
+    public int distance(int u, int v) {
+        int i = offsets.get(u), iEnd = offsets.get(u + 1);
+        int j = offsets.get(v), jEnd = offsets.get(v + 1);
+        int best = INFINITY;
+        while (i < iEnd && j < jEnd){
+            int hu = hubs.get(i), hv = hubs.get(j);
+            if (hu < hv)
+                i++;
+            else if (hu > hv)
+                j++;
+            else {
+                best = Math.min(best, dists.get(i) + dists.get(j));
+                i++;
+                j++;
+            }
+        }
+        return (best == INFINITY) ? NOT_FOUND : best;
+    }
+
+    /******************************************************************
+     * Returns the total number of (hub, distance) entries of all labels.
+     ******************************************************************/
+    public int getNumEntries() {
+        return hubs.limit();
+    }
+
+    /******************************************************************
+     * Returns the number of entries in the label of vertex v.
+     ******************************************************************/
+    public int labelSize(int v) {
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    /******************************************************************
+     * Saves the labels into a file, which open() can read.
+     ******************************************************************/
+    public void save(String fileName) throws IOException {
+        int n = graph.getNumVertices();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(graph.getNumArcs());
+            out.writeInt(getNumEntries());
+            out.writeInt(0); // keeps the fingerprint 8-byte aligned
+            out.writeLong(fingerprint(graph));
+            for (int v = 0; v <= n; v++)
+                out.writeInt(offsets.get(v));
+            for (int i = 0; i < getNumEntries(); i++)
+                out.writeInt(hubs.get(i));
+            for (int i = 0; i < getNumEntries(); i++)
+                out.writeShort(dists.get(i));
+        } finally {
+            out.close();
+        }
+    }
+
+    /******************************************************************
+     * Opens labels saved by save() for the given graph, which must be
+     * the graph they were built from (or a copy of it with the same
+     * vertex indices, such as the graph of a HollywoodSnapshot). The
+     * labels are used straight from the mapped file.
+     * @throws IOException if the file cannot be read, is damaged or was
+     * saved for another graph
+     ******************************************************************/
+    public static PrunedLandmarkLabels open(String fileName, CSRGraph<?> graph) throws IOException {
+        MappedByteBuffer map;
+        RandomAccessFile file = new RandomAccessFile(fileName, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException(fileName + " is too large to be a label file");
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            file.close(); // the mapping stays valid after the channel is closed
+        }
+        if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC)
+            throw new IOException(fileName + " is not a label file");
+        if (map.getInt(4) != VERSION)
+            throw new IOException(fileName + " has label file version " + map.getInt(4) + ", expected " + VERSION);
+        int n = map.getInt(8);
+        int numArcs = map.getInt(12);
+        int numEntries = map.getInt(16);
+        long expectedBytes = HEADER_BYTES + 4L * (n + 1L) + 6L * numEntries; // in long, so it cannot overflow
+        if (n < 0 || numEntries < 0 || expectedBytes != map.capacity())
+            throw new IOException(fileName + " is damaged: its header does not match its size");
+        if (n != graph.getNumVertices() || numArcs != graph.getNumArcs())
+            throw new IOException(fileName + " was built for a graph with " + n + " vertices and " + numArcs
+                + " arcs, not " + graph.getNumVertices() + " and " + graph.getNumArcs());
+        if (map.getLong(24) != fingerprint(graph))
+            throw new IOException(fileName + " was built for another graph with as many vertices and arcs");
+
+        int pos = HEADER_BYTES;
+        IntBuffer offsets = section(map, pos, (n + 1) * 4).asIntBuffer();
+        pos += (n + 1) * 4;
+        IntBuffer hubs = section(map, pos, numEntries * 4).asIntBuffer();
+        pos += numEntries * 4;
+        ShortBuffer dists = section(map, pos, numEntries * 2).asShortBuffer();
+        if (offsets.get(0) != 0 || offsets.get(n) != numEntries)
+            throw new IOException(fileName + " is damaged: its labels do not cover the entries");
+        for (int v = 0; v < n; v++){
+            if (offsets.get(v) > offsets.get(v + 1))
+                throw new IOException(fileName + " is damaged: the label of vertex " + v + " ends before it starts");
+        }
+        return new PrunedLandmarkLabels(graph, offsets, hubs, dists);
+    }
+
+    /******************************************************************
+     * Helper for save() and open(). Returns a 64-bit hash of the arcs
+     * of a graph (FNV-1a over its CSR offsets and targets), which two
+     * graphs share only if, in all likelihood, their arcs are the same.
+     ******************************************************************/
+    private static long fingerprint(CSRGraph<?> graph) {
+        long hash = 0xcbf29ce484222325L;
+        int n = graph.getNumVertices();
+        for (int v = 0; v < n; v++){
+            hash = (hash ^ graph.neighborStart(v)) * 0x100000001b3L;
+            for (int i = graph.neighborStart(v); i < graph.neighborEnd(v); i++)
+                hash = (hash ^ graph.neighborAt(i)) * 0x100000001b3L;
+        }
+        return hash ^ n;
+    }
+
+    /******************************************************************
+     * Helper for open(). Returns a view of length bytes of the mapped
+     * file starting at position.
+     ******************************************************************/
+    private static ByteBuffer section(MappedByteBuffer map, int position, int length) {
+        ByteBuffer dup = map.duplicate();
+        dup.position(position);
+        dup.limit(position + length);
+        return dup.slice();
+    }
+
+    /******************************************************************
+     * Testing: on a random graph with a few components, every distance
+     * must equal the breadth-first search distance, also after the
+     * labels are saved and opened again.
+     ******************************************************************/
+    public static void main(String[] args) throws IOException {
+        AdjListGraph<Integer> g = new AdjListGraph<Integer>();
+        java.util.Random random = new java.util.Random(5);
+        int n = 3000;
+        for (int v = 0; v < n; v++)
+            g.addVertex(v);
+        for (int e = 0; e < 9000; e++){
+            int u = random.nextInt(n), w = (int) (n * Math.pow(random.nextDouble(), 3)); // a few busy vertices
+            if (u % 3 == w % 3) // three components, more or less
+                g.addEdge(u, w);
+        }
+        CSRGraph<Integer> c = new CSRGraph<Integer>(g);
+        long start = System.nanoTime();
+        PrunedLandmarkLabels labels = new PrunedLandmarkLabels(c);
+        System.out.printf("built in %.0f ms, %.1f entries per vertex%n",
+                          (System.nanoTime() - start) / 1e6, (double) labels.getNumEntries() / n);
+
+        java.io.File f = java.io.File.createTempFile("labels", ".pll");
+        f.deleteOnExit();
+        labels.save(f.getPath());
+        PrunedLandmarkLabels reopened = PrunedLandmarkLabels.open(f.getPath(), c);
+
+        int wrong = 0, wrongReopened = 0;
+        for (int p = 0; p < 300; p++){
+            int u = random.nextInt(n);
+            int[] exact = c.distancesBFS(u);
+            for (int v = 0; v < n; v += 7){
+                if (labels.distance(u, v) != exact[v]) wrong++;
+                if (reopened.distance(u, v) != exact[v]) wrongReopened++;
+            }
+        }
+        System.out.println("wrong distances Expected: 0, actual: " + wrong);
+        System.out.println("wrong distances after reopening Expected: 0, actual: " + wrongReopened);
+        try {
+            PrunedLandmarkLabels.open(f.getPath(), new CSRGraph<String>(new AdjListGraph<String>()));
+            System.out.println("open for another graph Expected: IOException, actual: none");
+        } catch (IOException ex) {
+            System.out.println("open for another graph Expected: IOException, actual: IOException");
+        }
+
+        // another graph with as many vertices and arcs: one edge moved
+        int u = 0;
+        while (c.degree(u) == 0)
+            u++;
+        int w = c.neighborAt(c.neighborStart(u)), x = 0;
+        while (x == u || g.isEdge(u, x))
+            x++;
+        g.removeEdge(u, w);
+        g.addEdge(u, x);
+        try {
+            PrunedLandmarkLabels.open(f.getPath(), new CSRGraph<Integer>(g));
+            System.out.println("open for a graph with the same counts Expected: IOException, actual: none");
+        } catch (IOException ex) {
+            System.out.println("open for a graph with the same counts Expected: IOException, actual: IOException");
+        }
+
+        java.io.File cut = java.io.File.createTempFile("labels", ".pll");
+        cut.deleteOnExit();
+        byte[] bytes = java.nio.file.Files.readAllBytes(f.toPath());
+        java.nio.file.Files.write(cut.toPath(), java.util.Arrays.copyOf(bytes, bytes.length / 2));
+        try {
+            PrunedLandmarkLabels.open(cut.getPath(), c);
+            System.out.println("open a truncated file Expected: IOException, actual: none");
+        } catch (IOException ex) {
+            System.out.println("open a truncated file Expected: IOException, actual: IOException");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package javafoundations;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/********************************************************************
+ * StringDictionary.java
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ *
+ * Gives each distinct string an int id: 0 for the first string added,
+ * 1 for the next new one, and so on. Each string is stored once, so
+ * objects can hold an id instead of their own copy of a name, and
+ * two ids from the same dictionary are equal exactly when their
+ * strings are.
+ *
+ * KNOWN FEATURES/BUGS:
+ * Strings cannot be removed. Lookups may run while one thread adds
+ * strings, but only one thread may add at a time.
+ ********************************************************************/
+
+public class StringDictionary {
+    private volatile String[] strings; // string of each id
+    private volatile int size; // number of ids given out
+    private ConcurrentHashMap<String, Integer> ids; // string -> its id
+
+    /******************************************************************
+     * Constructor. Creates an empty dictionary.
+     ******************************************************************/
+    public StringDictionary() {
+        strings = new String[16];
+        ids = new ConcurrentHashMap<String, Integer>();
+    }
+
+    /******************************************************************
+     * Returns the id of a string, giving it the next id if it is not
+     * in the dictionary yet.
+     ******************************************************************/
+    public int add(String s) {
+        Integer id = ids.get(s);
+        if (id != null)
+            return id;
+        int next = size;
+        String[] all = strings;
+        if (next == all.length)
+            all = Arrays.copyOf(all, next * 2);
+        all[next] = s;
+        strings = all;
+        size = next + 1; // the string can be read before its id is found
+        ids.put(s, next);
+        return next;
+    }
+
+    /******************************************************************
+     * Returns the id of a string, or -1 if it is not in the dictionary.
+     ******************************************************************/
+    public int getId(String s) {
+        Integer id = ids.get(s);
+        return (id == null) ? -1 : id;
+    }
+
+    /******************************************************************
+     * Returns the string with the given id.
+     ******************************************************************/
+    public String get(int id) {
+        if (id < 0 || id >= size)
+            throw new IndexOutOfBoundsException("Id " + id + " of " + size);
+        return strings[id];
+    }
+
+    /******************************************************************
+     * Returns the number of strings in the dictionary.
+     ******************************************************************/
+    public int size() {
+        return size;
+    }
+
+    /******************************************************************
+     * Returns a string representation of the dictionary, e.g.
+     * {0=Alpha, 1=Beta}.
+     ******************************************************************/
+    public String toString() {
+        String result = "{";
+        for (int i = 0; i < size; i++){
+            if (i > 0)
+                result += ", ";
+            result += i + "=" + strings[i];
+        }
+        return result + "}";
+    }
+}
@@ -0,0 +1,147 @@
+//********************************************************************
+//  UnionFind.java       Java Foundations
+//
+//  Represents disjoint sets of the int elements 0 to size() - 1,
+//  also known as a union-find structure. Each set is a tree of
+//  parent links whose root stands for the whole set. Union links
+//  the root of the smaller set to the root of the larger one, and
+//  find halves the path it walks, so both take nearly constant
+//  amortized time. New elements can be added at any time, each in a
+//  set of its own. Sets can be merged but never split again.
+//********************************************************************
+
+package javafoundations;
+
+public class UnionFind
+{
+  private final int DEFAULT_CAPACITY = 16;
+  private int[] parent; // parent link of each element, itself for roots
+  private int[] setSize; // number of elements in the set, valid for roots only
+  private int count; // number of elements
+  private int numSets;
+
+  //-----------------------------------------------------------------
+  //  Creates an empty structure using the default capacity.
+  //-----------------------------------------------------------------
+  public UnionFind()
+  {
+    parent = new int[DEFAULT_CAPACITY];
+    setSize = new int[DEFAULT_CAPACITY];
+  }
+
+  //-----------------------------------------------------------------
+  //  Creates a structure holding the elements 0 to n - 1, each in a
+  //  set of its own.
+  //-----------------------------------------------------------------
+  public UnionFind(int n)
+  {
+    parent = new int[Math.max(n, DEFAULT_CAPACITY)];
+    setSize = new int[parent.length];
+    grow(n);
+  }
+
+  //-----------------------------------------------------------------
+  //  Adds elements, each in a set of its own, until there are at
+  //  least n elements.
+  //-----------------------------------------------------------------
+  public void grow(int n)
+  {
+    if (n > parent.length)
+    {
+      int capacity = Math.max(n, parent.length * 2);
+      parent = java.util.Arrays.copyOf(parent, capacity);
+      setSize = java.util.Arrays.copyOf(setSize, capacity);
+    }
+    for (; count < n; count++)
+    {
+      parent[count] = count;
+      setSize[count] = 1;
+      numSets++;
+    }
+  }
+
+  //-----------------------------------------------------------------
+  //  Adds an element in a set of its own and returns it.
+  //-----------------------------------------------------------------
+  public int add()
+  {
+    grow(count + 1);
+    return count - 1;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the root of the set holding the given element.
+  //-----------------------------------------------------------------
+  public int find(int element)
+  {
+    if (element < 0 || element >= count)
+      throw new IndexOutOfBoundsException("Element " + element + " of " + count);
+    while (parent[element] != element)
+    {
+      parent[element] = parent[parent[element]]; // path halving
+      element = parent[element];
+    }
+    return element;
+  }
+
+  //-----------------------------------------------------------------
+  //  Merges the sets holding the two elements. Returns true if they
+  //  were in different sets.
+  //-----------------------------------------------------------------
+  public boolean union(int element1, int element2)
+  {
+    int root1 = find(element1), root2 = find(element2);
+    if (root1 == root2)
+      return false;
+    if (setSize[root1] < setSize[root2])
+    {
+      int t = root1;
+      root1 = root2;
+      root2 = t;
+    }
+    parent[root2] = root1; // the smaller set goes under the larger
+    setSize[root1] += setSize[root2];
+    numSets--;
+    return true;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns true if the two elements are in the same set.
+  //-----------------------------------------------------------------
+  public boolean connected(int element1, int element2)
+  {
+    return find(element1) == find(element2);
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the number of elements in the set holding the element.
+  //-----------------------------------------------------------------
+  public int setSize(int element)
+  {
+    return setSize[find(element)];
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the number of elements.
+  //-----------------------------------------------------------------
+  public int size()
+  {
+    return count;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns the number of sets.
+  //-----------------------------------------------------------------
+  public int getNumSets()
+  {
+    return numSets;
+  }
+
+  //-----------------------------------------------------------------
+  //  Returns a string representation of the structure.
+  //-----------------------------------------------------------------
+  public String toString()
+  {
+    return "UnionFind: " + count + " elements in " + numSets + " sets";
+  }
+}
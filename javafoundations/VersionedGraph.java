@@ -0,0 +1,305 @@
+package javafoundations;
+
+import java.util.BitSet;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/********************************************************************
+ * VersionedGraph.java
+ * @author Beatrix Kim
+ * @author Jessica Dai
+ * @author Jessica Yang
+ * @version December 12, 2023
+ *
+ * A graph that can be queried by many threads while another thread
+ * changes it. Queries never see a half-done change and never wait:
+ * they run on a published Version, which holds a read-only CSRGraph
+ * copy of the graph that is never changed afterwards. Writers change
+ * a private AdjListGraph in batches; at the end of each batch a new
+ * CSRGraph is built from it and published in place of the old one
+ * with a single write, so a reader sees either the whole batch or
+ * none of it. Readers that are still using an older version keep
+ * using it safely until they are done.
+ *
+ * Typical use:
+ *   VersionedGraph.Version<String> v = g.current(); // once per query
+ *   int[] path = v.getGraph().shortestPath(...);
+ *   g.update(batch -> { batch.addVertex("x"); batch.addEdge("x", "y"); });
+ *
+ * The batch's changes are recorded, so that the new CSRGraph only
+ * re-reads the neighbors of the vertices that were added or whose
+ * arcs changed, and copies the other rows from the previous version
+ * in bulk.
+ *
+ * A VersionedGraph made from a Supplier of the writers' graph does not
+ * keep that graph once version 0 is published: it only builds it again,
+ * from the supplier, when the first batch arrives. A graph that is only
+ * ever read then costs its CSRGraph copy alone.
+ *
+ * Each version also has a ComponentIndex of the graph's connected
+ * components. The writers keep a UnionFind of the vertices up to date
+ * as arcs are added, and number its sets for each new version.
+ *
+ * KNOWN FEATURES/BUGS:
+ * A batch that removes a vertex renumbers the vertices after it, so
+ * the whole graph is copied into the new version, which takes O(V+E)
+ * time. Vertex indices are only meaningful within one version.
+ * Components cannot be split again, so a batch that removes an arc
+ * or a vertex finds the components of the new version from scratch.
+ ********************************************************************/
+
+public class VersionedGraph<T> {
+    private AdjListGraph<T> graph; // the writers' copy, only used while holding the lock; null until needed
+    private UnionFind components; // connected vertices of the writers' copy, only used while holding the lock
+    private Supplier<AdjListGraph<T>> source; // builds the writers' copy again, null if it is always kept
+    private volatile Version<T> current; // the latest published version
+
+    /******************************************************************
+     * One published state of the graph. Its graph never changes.
+     ******************************************************************/
+    public static class Version<T> {
+        private final long number;
+        private final CSRGraph<T> graph;
+        private final ComponentIndex components;
+
+        Version(long number, CSRGraph<T> graph, ComponentIndex components) {
+            this.number = number;
+            this.graph = graph;
+            this.components = components;
+        }
+
+        /** Returns the version number: 0 at first, then 1 more per batch. */
+        public long getNumber() {
+            return number;
+        }
+
+        /** Returns the read-only graph of this version. */
+        public CSRGraph<T> getGraph() {
+            return graph;
+        }
+
+        /** Returns the connected components of this version's graph. */
+        public ComponentIndex getComponents() {
+            return components;
+        }
+    }
+
+    /******************************************************************
+     * Constructor. Takes over the given graph, which must not be used
+     * directly afterwards, and publishes it as version 0.
+     ******************************************************************/
+    public VersionedGraph(AdjListGraph<T> graph) {
+        this.graph = graph;
+        CSRGraph<T> frozen = new CSRGraph<T>(graph);
+        components = ComponentIndex.connect(frozen);
+        current = new Version<T>(0, frozen, new ComponentIndex(components));
+    }
+
+    /******************************************************************
+     * Constructor. Publishes the graph the supplier builds as version
+     * 0, then lets the writers' copy go. The supplier is called again
+     * for the first batch, and must build the same graph (with the same
+     * vertex indices) both times.
+     ******************************************************************/
+    public VersionedGraph(Supplier<AdjListGraph<T>> source) {
+        this(source.get());
+        this.source = source;
+        graph = null; // version 0 has all a reader needs
+        components = null;
+    }
+
+    /******************************************************************
+     * Returns the latest published version. A query should call this
+     * once and use the same version throughout.
+     ******************************************************************/
+    public Version<T> current() {
+        return current;
+    }
+
+    /******************************************************************
+     * Returns the number of the latest published version.
+     ******************************************************************/
+    public long getVersion() {
+        return current.getNumber();
+    }
+
+    /******************************************************************
+     * Applies a batch of changes and publishes the result as the next
+     * version. Batches run one at a time. The batch gets the writers'
+     * graph through the Graph interface, and must not keep it. If the
+     * batch throws an exception, the changes it made before that are
+     * still published.
+     ******************************************************************/
+    public synchronized Version<T> update(Consumer<Graph<T>> batch) {
+        if (graph == null){ // first batch: build the writers' copy again
+            graph = source.get();
+            components = ComponentIndex.connect(current.getGraph());
+        }
+        Recorder changes = new Recorder();
+        try {
+            batch.accept(changes);
+        } finally {
+            CSRGraph<T> before = current.getGraph();
+            CSRGraph<T> after = changes.freeze(before);
+            ComponentIndex index = current.getComponents(); // unchanged if the graph is
+            if (after != before){
+                if (changes.split)
+                    components = ComponentIndex.connect(after);
+                components.grow(after.getNumVertices()); // new vertices without arcs
+                index = new ComponentIndex(components);
+            }
+            current = new Version<T>(current.getNumber() + 1, after, index);
+        }
+        return current;
+    }
+
+    /******************************************************************
+     * The writers' graph as a batch sees it. Passes every change on to
+     * the graph and notes which vertices' arcs changed. Added arcs join
+     * the components of their ends.
+     ******************************************************************/
+    private class Recorder implements Graph<T> {
+        private BitSet changed = new BitSet(); // vertices whose arcs changed
+        private boolean removed = false; // whether a vertex was removed
+        private boolean split = false; // whether an arc or a vertex was removed
+
+        /** Returns the frozen graph after the batch, given the one before. */
+        CSRGraph<T> freeze(CSRGraph<T> before) {
+            if (removed)
+                return new CSRGraph<T>(graph);
+            if (changed.isEmpty() && graph.getNumVertices() == before.getNumVertices())
+                return before; // nothing changed
+            return new CSRGraph<T>(before, graph, changed.stream().toArray());
+        }
+
+        public boolean isEmpty() { return graph.isEmpty(); }
+        public int getNumVertices() { return graph.getNumVertices(); }
+        public int getNumArcs() { return graph.getNumArcs(); }
+        public boolean isArc(T vertex1, T vertex2) { return graph.isArc(vertex1, vertex2); }
+        public boolean isEdge(T vertex1, T vertex2) { return graph.isEdge(vertex1, vertex2); }
+        public void addVertex(T vertex) { graph.addVertex(vertex); } // new vertices go at the end
+        public String toString() { return graph.toString(); }
+        public void saveTGF(String tgf_file_name) { graph.saveTGF(tgf_file_name); }
+
+        public void removeVertex(T vertex) {
+            if (graph.getObjIdx(vertex) != -1)
+                removed = split = true;
+            graph.removeVertex(vertex);
+        }
+
+        public void addArc(T vertex1, T vertex2) {
+            graph.addArc(vertex1, vertex2);
+            note(vertex1);
+            int v1 = graph.getObjIdx(vertex1), v2 = graph.getObjIdx(vertex2);
+            if (v1 != -1 && v2 != -1){
+                components.grow(graph.getNumVertices());
+                components.union(v1, v2);
+            }
+        }
+
+        public void removeArc(T vertex1, T vertex2) {
+            graph.removeArc(vertex1, vertex2);
+            note(vertex1);
+            split = true;
+        }
+
+        public void addEdge(T vertex1, T vertex2) {
+            addArc(vertex1, vertex2);
+            addArc(vertex2, vertex1);
+        }
+
+        public void removeEdge(T vertex1, T vertex2) {
+            removeArc(vertex1, vertex2);
+            removeArc(vertex2, vertex1);
+        }
+
+        private void note(T vertex) {
+            int v = graph.getObjIdx(vertex);
+            if (v != -1)
+                changed.set(v);
+        }
+    }
+
+    /******************************************************************
+     * Testing: readers traverse a star graph while a writer keeps
+     * adding a new leaf and removing the oldest one in each batch.
+     * Every version a reader sees must be a whole star.
+     ******************************************************************/
+    public static void main(String[] args) throws InterruptedException {
+        AdjListGraph<String> star = new AdjListGraph<String>();
+        star.addVertex("hub");
+        for (int i = 0; i < 100; i++){
+            star.addVertex("leaf" + i);
+            star.addEdge("hub", "leaf" + i);
+        }
+        VersionedGraph<String> g = new VersionedGraph<String>(star);
+        int batches = 2000;
+        int[] torn = new int[1]; // versions that were not a whole star
+        long[] reads = new long[1];
+
+        Thread[] readers = new Thread[3];
+        for (int r = 0; r < readers.length; r++){
+            readers[r] = new Thread(() -> {
+                long lastSeen = -1;
+                while (lastSeen < batches){
+                    Version<String> v = g.current();
+                    CSRGraph<String> c = v.getGraph();
+                    int hub = c.getObjIdx("hub");
+                    boolean whole = c.getNumVertices() == 101 && c.getNumArcs() == 200
+                        && hub != -1 && c.degree(hub) == 100 && c.distancesBFS(hub).length == 101;
+                    synchronized (torn){
+                        if (!whole) torn[0]++;
+                        reads[0]++;
+                    }
+                    lastSeen = v.getNumber();
+                }
+            });
+            readers[r].start();
+        }
+        for (int i = 100; i < 100 + batches; i++){
+            final int leaf = i;
+            g.update(batch -> {
+                batch.addVertex("leaf" + leaf);
+                batch.addEdge("hub", "leaf" + leaf);
+                batch.removeVertex("leaf" + (leaf - 100));
+            });
+        }
+        for (Thread r : readers)
+            r.join();
+        System.out.println("version Expected: " + batches + ", actual: " + g.getVersion());
+        System.out.println("torn versions Expected: 0, actual: " + torn[0] + " (of " + reads[0] + " reads)");
+        System.out.println("leaf0 Expected: -1, actual: " + g.current().getGraph().getObjIdx("leaf0"));
+
+        // batches without removed vertices are copied incrementally; they must give
+        // the same graph as copying the whole writers' graph
+        VersionedGraph<String> h = new VersionedGraph<String>(() -> new AdjListGraph<String>()); // built again for the first batch
+        java.util.Random random = new java.util.Random(7);
+        Version<String> first = h.current();
+        int different = 0;
+        for (int b = 0; b < 200; b++){
+            final boolean addOnly = b % 2 == 0; // components are only joined, not found again
+            h.update(batch -> {
+                for (int i = 0; i < 5; i++)
+                    batch.addVertex("v" + random.nextInt(1000));
+                for (int i = 0; i < 20; i++){
+                    String x = "v" + random.nextInt(1000), y = "v" + random.nextInt(1000);
+                    if (!addOnly && random.nextInt(4) == 0)
+                        batch.removeEdge(x, y);
+                    else batch.addEdge(x, y);
+                }
+            });
+            CSRGraph<String> incremental = h.current().getGraph();
+            CSRGraph<String> full = new CSRGraph<String>(h.graph);
+            ComponentIndex components = h.current().getComponents(), fullComponents = new ComponentIndex(full);
+            boolean same = incremental.toString().equals(full.toString())
+                && components.getNumVertices() == full.getNumVertices();
+            for (int v = 0; same && v < full.getNumVertices(); v++)
+                same = components.component(v) == fullComponents.component(v);
+            if (!same)
+                different++;
+        }
+        System.out.println("incremental copies (or components) different from full copies Expected: 0, actual: " + different);
+        System.out.println("v0 in version 0 Expected: -1, actual: " + first.getGraph().getObjIdx("v0")
+            + " (version " + h.getVersion() + ": " + h.current().getGraph().getObjIdx("v0") + ")");
+    }
+}